@@ -0,0 +1,88 @@
+package org.lychie.beanutil.benchmarks;
+
+/**
+ * 基准测试使用的 Bean: 少量属性、大量属性、深继承层次
+ * 
+ * @author Lychie Fan
+ */
+public class Beans {
+
+	public static class Small {
+
+		int age;
+		String name;
+		long id;
+		boolean active;
+
+		public int getAge() {
+			return age;
+		}
+
+		public void setAge(int age) {
+			this.age = age;
+		}
+
+	}
+
+	public static class Wide {
+
+		int f00, f01, f02, f03, f04, f05, f06, f07;
+		int f08, f09, f10, f11, f12, f13, f14, f15;
+		long f16, f17, f18, f19, f20, f21, f22, f23;
+		String f24, f25, f26, f27, f28, f29, f30;
+		int f31;
+
+		public int getF31() {
+			return f31;
+		}
+
+		public void setF31(int f31) {
+			this.f31 = f31;
+		}
+
+	}
+
+	public static class Deep0 {
+
+		int depth;
+		String name0;
+
+		public int getDepth() {
+			return depth;
+		}
+
+		public void setDepth(int depth) {
+			this.depth = depth;
+		}
+
+	}
+
+	public static class Deep1 extends Deep0 {
+
+		int value1;
+		String name1;
+
+	}
+
+	public static class Deep2 extends Deep1 {
+
+		int value2;
+		String name2;
+
+	}
+
+	public static class Deep3 extends Deep2 {
+
+		int value3;
+		String name3;
+
+	}
+
+	public static class Deep extends Deep3 {
+
+		int value4;
+		String name4;
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package org.lychie.beanutil.benchmarks;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+
+/**
+ * 运行基准测试, 总是附加 GC 分析器以报告每次操作的内存分配(gc.alloc.rate.norm)。
+ * 命令行参数与 JMH 相同, 如 java -jar target/benchmarks.jar PropertyAccess -p shape=WIDE
+ * 
+ * @author Lychie Fan
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws Exception {
+		Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class).build();
+		new Runner(options).run();
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,68 @@
+package org.lychie.beanutil.benchmarks;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.lychie.beanutil.BeanProperty;
+import org.lychie.beanutil.ClassWrapper;
+
+/**
+ * 获取类的属性列表: 手写的继承链遍历与 {@link BeanProperty#getReferableFields(Class)}、
+ * 缓存的 {@link ClassWrapper#getProperties()} 的对比
+ * 
+ * @author Lychie Fan
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FieldListingBenchmark {
+
+	@Param({ "SMALL", "WIDE", "DEEP" })
+	Shape shape;
+
+	Class<?> beanClass;
+
+	@Setup
+	public void setup() {
+		beanClass = shape.beanClass();
+	}
+
+	@Benchmark
+	public List<Field> handWritten() {
+		List<Field> fields = new ArrayList<Field>();
+		for (Class<?> type = beanClass; type != Object.class; type = type
+				.getSuperclass()) {
+			for (Field field : type.getDeclaredFields()) {
+				field.setAccessible(true);
+				fields.add(field);
+			}
+		}
+		return fields;
+	}
+
+	@Benchmark
+	public List<Field> referableFields() {
+		return BeanProperty.getReferableFields(beanClass);
+	}
+
+	@Benchmark
+	public Object cachedProperties() {
+		return ClassWrapper.wrap(beanClass).getProperties();
+	}
+
+}
\ No newline at end of file
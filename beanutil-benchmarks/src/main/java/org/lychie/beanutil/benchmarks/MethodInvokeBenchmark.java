@@ -0,0 +1,69 @@
+package org.lychie.beanutil.benchmarks;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.lychie.beanutil.BeanMethod;
+import org.lychie.beanutil.MethodInvoker;
+
+/**
+ * 方法调用: 直接调用 getter、{@link Method#invoke(Object, Object...)} 与
+ * {@link BeanMethod#invoke(Object, String, Object...)}、{@link MethodInvoker} 的对比
+ * 
+ * @author Lychie Fan
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MethodInvokeBenchmark {
+
+	@Param({ "SMALL", "WIDE", "DEEP" })
+	Shape shape;
+
+	Object bean;
+	String getter;
+	Method method;
+	MethodInvoker invoker;
+
+	@Setup
+	public void setup() throws Exception {
+		bean = shape.newBean();
+		getter = shape.getter();
+		method = shape.beanClass().getMethod(getter);
+		invoker = BeanMethod.getInvoker(shape.beanClass(), getter);
+	}
+
+	@Benchmark
+	public int direct() {
+		return shape.getterGet(bean);
+	}
+
+	@Benchmark
+	public Object reflection() throws Exception {
+		return method.invoke(bean);
+	}
+
+	@Benchmark
+	public Object beanMethodInvoke() {
+		return BeanMethod.invoke(bean, getter);
+	}
+
+	@Benchmark
+	public Object invokerInvoke0() {
+		return invoker.invoke0(bean);
+	}
+
+}
\ No newline at end of file
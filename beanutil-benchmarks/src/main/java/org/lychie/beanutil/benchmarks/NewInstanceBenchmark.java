@@ -0,0 +1,67 @@
+package org.lychie.beanutil.benchmarks;
+
+import java.util.function.Supplier;
+import java.lang.reflect.Constructor;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.lychie.beanutil.BeanClass;
+
+/**
+ * 创建实例: new、{@link Constructor#newInstance(Object...)} 与
+ * {@link BeanClass#newInstance(Class)}、{@link BeanClass#getFactory(Class)} 的对比
+ * 
+ * @author Lychie Fan
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class NewInstanceBenchmark {
+
+	@Param({ "SMALL", "WIDE", "DEEP" })
+	Shape shape;
+
+	Class<?> beanClass;
+	Constructor<?> constructor;
+	Supplier<?> factory;
+
+	@Setup
+	public void setup() throws Exception {
+		beanClass = shape.beanClass();
+		constructor = beanClass.getConstructor();
+		factory = BeanClass.getFactory(beanClass);
+	}
+
+	@Benchmark
+	public Object direct() {
+		return shape.newBean();
+	}
+
+	@Benchmark
+	public Object reflection() throws Exception {
+		return constructor.newInstance();
+	}
+
+	@Benchmark
+	public Object beanClassNewInstance() {
+		return BeanClass.newInstance(beanClass);
+	}
+
+	@Benchmark
+	public Object factory() {
+		return factory.get();
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,135 @@
+package org.lychie.beanutil.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.lychie.beanutil.BeanAccess;
+import org.lychie.beanutil.BeanWrapper;
+import org.lychie.beanutil.ClassWrapper;
+import org.lychie.beanutil.PropertyHandle;
+
+/**
+ * 属性读写: 直接访问字段、手写 getter 与 {@link ClassWrapper}、{@link BeanWrapper}、
+ * {@link PropertyHandle}、{@link BeanAccess} 的对比
+ * 
+ * @author Lychie Fan
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PropertyAccessBenchmark {
+
+	@Param({ "SMALL", "WIDE", "DEEP" })
+	Shape shape;
+
+	Object bean;
+	String property;
+	ClassWrapper classWrapper;
+	BeanWrapper beanWrapper;
+	PropertyHandle handle;
+	BeanAccess access;
+	int index;
+	int value;
+	Integer boxed;
+
+	@Setup
+	public void setup() {
+		bean = shape.newBean();
+		property = shape.property();
+		classWrapper = ClassWrapper.wrap(shape.beanClass());
+		beanWrapper = BeanWrapper.wrap(bean);
+		handle = classWrapper.property(property);
+		access = classWrapper.compiled();
+		index = handle.getIndex();
+		value = 42;
+		boxed = 4242;
+	}
+
+	@Benchmark
+	public int directGet() {
+		return shape.directGet(bean);
+	}
+
+	@Benchmark
+	public int getterGet() {
+		return shape.getterGet(bean);
+	}
+
+	@Benchmark
+	public Object classWrapperGet() {
+		return classWrapper.getPropertyValue(bean, property);
+	}
+
+	@Benchmark
+	public int classWrapperGetInt() {
+		return classWrapper.getInt(bean, property);
+	}
+
+	@Benchmark
+	public Object beanWrapperGet() {
+		return beanWrapper.getPropertyValue(property);
+	}
+
+	@Benchmark
+	public int beanWrapperGetInt() {
+		return beanWrapper.getInt(property);
+	}
+
+	@Benchmark
+	public int handleGetInt() {
+		return handle.getInt(bean);
+	}
+
+	@Benchmark
+	public Object compiledGet() {
+		return access.get(bean, index);
+	}
+
+	@Benchmark
+	public void directSet() {
+		shape.directSet(bean, value);
+	}
+
+	@Benchmark
+	public void classWrapperSet() {
+		classWrapper.setPropertyValue(bean, property, boxed);
+	}
+
+	@Benchmark
+	public void classWrapperSetInt() {
+		classWrapper.setInt(bean, property, value);
+	}
+
+	@Benchmark
+	public void beanWrapperSet() {
+		beanWrapper.setPropertyValue(property, boxed);
+	}
+
+	@Benchmark
+	public void beanWrapperSetInt() {
+		beanWrapper.setInt(property, value);
+	}
+
+	@Benchmark
+	public void handleSetInt() {
+		handle.setInt(bean, value);
+	}
+
+	@Benchmark
+	public void compiledSet() {
+		access.set(bean, index, boxed);
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,121 @@
+package org.lychie.beanutil.benchmarks;
+
+import org.lychie.beanutil.benchmarks.Beans.Deep;
+import org.lychie.beanutil.benchmarks.Beans.Wide;
+import org.lychie.beanutil.benchmarks.Beans.Deep0;
+import org.lychie.beanutil.benchmarks.Beans.Small;
+
+/**
+ * Bean 的形态。每种形态给出被测的 int 属性, 以及手写的直接访问代码作为基准线;
+ * 一次 fork 只使用一种形态, 调用点保持单态
+ * 
+ * @author Lychie Fan
+ */
+public enum Shape {
+
+	/** 4 个属性 */
+	SMALL(Small.class, "age", "getAge") {
+
+		@Override
+		public Object newBean() {
+			return new Small();
+		}
+
+		@Override
+		public int directGet(Object bean) {
+			return ((Small) bean).age;
+		}
+
+		@Override
+		public void directSet(Object bean, int value) {
+			((Small) bean).age = value;
+		}
+
+		@Override
+		public int getterGet(Object bean) {
+			return ((Small) bean).getAge();
+		}
+
+	},
+
+	/** 32 个属性, 被测的是最后一个 */
+	WIDE(Wide.class, "f31", "getF31") {
+
+		@Override
+		public Object newBean() {
+			return new Wide();
+		}
+
+		@Override
+		public int directGet(Object bean) {
+			return ((Wide) bean).f31;
+		}
+
+		@Override
+		public void directSet(Object bean, int value) {
+			((Wide) bean).f31 = value;
+		}
+
+		@Override
+		public int getterGet(Object bean) {
+			return ((Wide) bean).getF31();
+		}
+
+	},
+
+	/** 5 层继承, 被测的属性声明在最顶层的超类中 */
+	DEEP(Deep.class, "depth", "getDepth") {
+
+		@Override
+		public Object newBean() {
+			return new Deep();
+		}
+
+		@Override
+		public int directGet(Object bean) {
+			return ((Deep0) bean).depth;
+		}
+
+		@Override
+		public void directSet(Object bean, int value) {
+			((Deep0) bean).depth = value;
+		}
+
+		@Override
+		public int getterGet(Object bean) {
+			return ((Deep0) bean).getDepth();
+		}
+
+	};
+
+	private final Class<?> beanClass;
+	private final String property;
+	private final String getter;
+
+	private Shape(Class<?> beanClass, String property, String getter) {
+		this.beanClass = beanClass;
+		this.property = property;
+		this.getter = getter;
+	}
+
+	public Class<?> beanClass() {
+		return beanClass;
+	}
+
+	public String property() {
+		return property;
+	}
+
+	public String getter() {
+		return getter;
+	}
+
+	public abstract Object newBean();
+
+	public abstract int directGet(Object bean);
+
+	public abstract void directSet(Object bean, int value);
+
+	public abstract int getterGet(Object bean);
+
+}
\ No newline at end of file
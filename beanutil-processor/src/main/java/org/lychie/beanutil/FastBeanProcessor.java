@@ -0,0 +1,402 @@
+package org.lychie.beanutil;
+
+import java.util.Set;
+import java.util.List;
+import java.util.HashSet;
+import java.util.ArrayList;
+import java.io.Writer;
+import java.io.IOException;
+import javax.tools.Diagnostic.Kind;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.util.Types;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.ElementFilter;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+
+/**
+ * {@link FastBean} 的注解处理器。<br>
+ * 为每个标注的类在同一个包中生成名为 类名$$FastBean 的 {@link FastBeanProvider},
+ * 运行期按类名直接加载, 不需要 META-INF/services 的登记。<br>
+ * 处理器位于独立的 beanutil-processor 模块, 只在编译期需要, 不随 beanutil 进入运行期的类路径;
+ * 该模块的 jar 已登记处理器, 位于编译期的类路径或 annotationProcessorPaths 上即可生效
+ * 
+ * @author Lychie Fan
+ */
+@SupportedAnnotationTypes("org.lychie.beanutil.FastBean")
+public class FastBeanProcessor extends AbstractProcessor {
+
+	private static final String suffix = "$$FastBean";
+	private static final String[] primitives = { "boolean", "byte", "char",
+			"short", "int", "long", "float", "double" };
+	private static final String[] numerics = { "byte", "short", "int",
+			"long", "float", "double" };
+
+	private Types types;
+	private Elements elements;
+	private Filer filer;
+	private Messager messager;
+
+	@Override
+	public synchronized void init(ProcessingEnvironment processingEnv) {
+		super.init(processingEnv);
+		this.types = processingEnv.getTypeUtils();
+		this.elements = processingEnv.getElementUtils();
+		this.filer = processingEnv.getFiler();
+		this.messager = processingEnv.getMessager();
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations,
+			RoundEnvironment roundEnv) {
+
+		for (Element element : roundEnv.getElementsAnnotatedWith(FastBean.class)) {
+			if (element.getKind() != ElementKind.CLASS) {
+				messager.printMessage(Kind.ERROR,
+						"@FastBean can only be applied to classes", element);
+				continue;
+			}
+			TypeElement type = (TypeElement) element;
+			if (!isAccessible(type, packageOf(type))) {
+				messager.printMessage(Kind.ERROR,
+						"@FastBean class can not be private", element);
+				continue;
+			}
+			try {
+				generate(type);
+			} catch (IOException e) {
+				messager.printMessage(Kind.ERROR,
+						"can not generate accessors: " + e, element);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 生成类的访问器工厂
+	 * 
+	 * @param type
+	 *            标注了 {@link FastBean} 的类
+	 * @throws IOException
+	 */
+	private void generate(TypeElement type) throws IOException {
+		String packageName = packageOf(type);
+		String binaryName = elements.getBinaryName(type).toString();
+		String simpleName = (packageName.isEmpty() ? binaryName : binaryName
+				.substring(packageName.length() + 1)) + suffix;
+		String className = packageName.isEmpty() ? simpleName : packageName
+				+ "." + simpleName;
+		String beanName = type.getQualifiedName().toString();
+
+		List<String> names = new ArrayList<String>();
+		List<String> bodies = new ArrayList<String>();
+		Set<String> seen = new HashSet<String>();
+		for (TypeElement current = type; current != null; current = superclassOf(current)) {
+			for (VariableElement field : ElementFilter.fieldsIn(current
+					.getEnclosedElements())) {
+				Set<Modifier> modifiers = field.getModifiers();
+				String name = field.getSimpleName().toString();
+				/* 与运行期的属性表一致, 同名时子类的属性优先 */
+				if (modifiers.contains(Modifier.STATIC) || !seen.add(name)) {
+					continue;
+				}
+				if (modifiers.contains(Modifier.FINAL)) {
+					continue;
+				}
+				String body = accessorBody(type, current, field, packageName);
+				if (body != null) {
+					names.add(name);
+					bodies.add(body);
+				}
+			}
+		}
+
+		StringBuilder out = new StringBuilder();
+		if (!packageName.isEmpty()) {
+			out.append("package ").append(packageName).append(";\n\n");
+		}
+		out.append("/* generated by ").append(getClass().getName())
+				.append(", do not edit */\n");
+		out.append("@java.lang.SuppressWarnings({ \"rawtypes\", \"unchecked\" })\n");
+		out.append("public final class ").append(simpleName)
+				.append(" implements org.lychie.beanutil.FastBeanProvider {\n\n");
+		out.append("\t@java.lang.Override\n");
+		out.append("\tpublic java.lang.Class<?> getBeanClass() {\n");
+		out.append("\t\treturn ").append(beanName).append(".class;\n");
+		out.append("\t}\n\n");
+		out.append("\t@java.lang.Override\n");
+		out.append("\tpublic org.lychie.beanutil.PropertyAccessor newAccessor(java.lang.reflect.Field field) {\n");
+		out.append("\t\tswitch (field.getName()) {\n");
+		for (int i = 0; i < names.size(); i++) {
+			out.append("\t\tcase \"").append(names.get(i)).append("\":\n");
+			out.append("\t\t\treturn new P").append(i).append("(field);\n");
+		}
+		out.append("\t\tdefault:\n");
+		out.append("\t\t\treturn null;\n");
+		out.append("\t\t}\n");
+		out.append("\t}\n");
+		for (int i = 0; i < bodies.size(); i++) {
+			out.append("\n\tprivate static final class P").append(i)
+					.append(" extends org.lychie.beanutil.PropertyAccessor {\n\n");
+			out.append("\t\tP").append(i)
+					.append("(java.lang.reflect.Field field) {\n");
+			out.append("\t\t\tsuper(field);\n");
+			out.append("\t\t}\n");
+			out.append(bodies.get(i));
+			out.append("\n\t}\n");
+		}
+		out.append("\n}\n");
+
+		Writer writer = filer.createSourceFile(className, type).openWriter();
+		try {
+			writer.write(out.toString());
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * 生成属性访问器的方法。非私有且可访问的属性直接读写, 否则通过 getter/setter 读写
+	 * 
+	 * @return 无法在生成的代码中访问时返回 null, 该属性在运行期回退到反射访问
+	 */
+	private String accessorBody(TypeElement type, TypeElement owner,
+			VariableElement field, String packageName) {
+
+		String name = field.getSimpleName().toString();
+		TypeMirror fieldType = types.erasure(field.asType());
+		String typeName = fieldType.toString();
+		if (!isAccessible(fieldType, packageName)) {
+			warn(field, "its type is not accessible from the package "
+					+ packageName);
+			return null;
+		}
+		String read;
+		String write;
+		if (isMemberAccessible(field, owner, packageName)) {
+			String target = "((" + owner.getQualifiedName() + ") bean).";
+			read = target + name;
+			write = target + name + " = %s;";
+		} else {
+			ExecutableElement getter = findGetter(type, name, fieldType,
+					packageName);
+			ExecutableElement setter = findSetter(type, name, fieldType,
+					packageName);
+			if (getter == null || setter == null) {
+				warn(field, "it is not accessible and has no accessible "
+						+ (getter == null ? "getter" : "setter"));
+				return null;
+			}
+			String target = "((" + type.getQualifiedName() + ") bean).";
+			read = target + getter.getSimpleName() + "()";
+			write = target + setter.getSimpleName() + "(%s);";
+		}
+
+		StringBuilder out = new StringBuilder();
+		out.append("\n\t\t@java.lang.Override\n");
+		out.append("\t\tpublic java.lang.Object get(java.lang.Object bean) {\n");
+		out.append("\t\t\treturn ").append(read).append(";\n");
+		out.append("\t\t}\n");
+		out.append("\n\t\t@java.lang.Override\n");
+		out.append("\t\tpublic void set(java.lang.Object bean, java.lang.Object value) {\n");
+		if (fieldType.getKind().isPrimitive()) {
+			out.append("\t\t\tsetPrimitive(bean, value);\n");
+		} else {
+			out.append("\t\t\t")
+					.append(String.format(write, "(" + typeName + ") value"))
+					.append("\n");
+		}
+		out.append("\t\t}\n");
+		if (fieldType.getKind().isPrimitive()) {
+			for (String primitive : primitives) {
+				String method = Character.toUpperCase(primitive.charAt(0))
+						+ primitive.substring(1);
+				if (isWidening(typeName, primitive)) {
+					out.append("\n\t\t@java.lang.Override\n");
+					out.append("\t\tpublic ").append(primitive).append(" get")
+							.append(method)
+							.append("(java.lang.Object bean) {\n");
+					out.append("\t\t\treturn ").append(read).append(";\n");
+					out.append("\t\t}\n");
+				}
+				if (isWidening(primitive, typeName)) {
+					out.append("\n\t\t@java.lang.Override\n");
+					out.append("\t\tpublic void set").append(method)
+							.append("(java.lang.Object bean, ")
+							.append(primitive).append(" value) {\n");
+					out.append("\t\t\t").append(String.format(write, "value"))
+							.append("\n");
+					out.append("\t\t}\n");
+				}
+			}
+		}
+		return out.toString();
+	}
+
+	/**
+	 * 查找属性的 getter, boolean 属性也可以是 isXxx
+	 */
+	private ExecutableElement findGetter(TypeElement type, String name,
+			TypeMirror fieldType, String packageName) {
+
+		String capitalized = Character.toUpperCase(name.charAt(0))
+				+ name.substring(1);
+		for (ExecutableElement method : ElementFilter.methodsIn(elements
+				.getAllMembers(type))) {
+			String methodName = method.getSimpleName().toString();
+			if ((methodName.equals("get" + capitalized) || fieldType.getKind() == TypeKind.BOOLEAN
+					&& methodName.equals("is" + capitalized))
+					&& method.getParameters().isEmpty()
+					&& types.isSameType(types.erasure(method.getReturnType()),
+							fieldType) && isMethodAccessible(method, packageName)) {
+				return method;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 查找属性的 setter
+	 */
+	private ExecutableElement findSetter(TypeElement type, String name,
+			TypeMirror fieldType, String packageName) {
+
+		String methodName = "set" + Character.toUpperCase(name.charAt(0))
+				+ name.substring(1);
+		for (ExecutableElement method : ElementFilter.methodsIn(elements
+				.getAllMembers(type))) {
+			if (method.getSimpleName().contentEquals(methodName)
+					&& method.getParameters().size() == 1
+					&& types.isSameType(types.erasure(method.getParameters()
+							.get(0).asType()), fieldType)
+					&& isMethodAccessible(method, packageName)) {
+				return method;
+			}
+		}
+		return null;
+	}
+
+	private boolean isMethodAccessible(ExecutableElement method,
+			String packageName) {
+
+		return !method.getModifiers().contains(Modifier.STATIC)
+				&& isMemberAccessible(method,
+						(TypeElement) method.getEnclosingElement(), packageName);
+	}
+
+	/**
+	 * 成员是否可以在 packageName 包中通过类型转换直接访问。
+	 * 其它包中的 protected 成员不可访问
+	 */
+	private boolean isMemberAccessible(Element member, TypeElement owner,
+			String packageName) {
+
+		Set<Modifier> modifiers = member.getModifiers();
+		if (modifiers.contains(Modifier.PRIVATE)
+				|| !isAccessible(owner, packageName)) {
+			return false;
+		}
+		return modifiers.contains(Modifier.PUBLIC)
+				|| packageOf(owner).equals(packageName);
+	}
+
+	/**
+	 * 类型是否可以在 packageName 包中引用
+	 */
+	private boolean isAccessible(TypeMirror type, String packageName) {
+		if (type.getKind() == TypeKind.ARRAY) {
+			return isAccessible(((ArrayType) type).getComponentType(),
+					packageName);
+		}
+		if (type.getKind() == TypeKind.DECLARED) {
+			return isAccessible(
+					(TypeElement) ((DeclaredType) type).asElement(),
+					packageName);
+		}
+		return type.getKind().isPrimitive();
+	}
+
+	private boolean isAccessible(TypeElement type, String packageName) {
+		for (Element element = type; element instanceof TypeElement; element = element
+				.getEnclosingElement()) {
+			Set<Modifier> modifiers = element.getModifiers();
+			if (modifiers.contains(Modifier.PRIVATE)) {
+				return false;
+			}
+			if (!modifiers.contains(Modifier.PUBLIC)
+					&& !packageOf((TypeElement) element).equals(packageName)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 基本类型 from 能否拓宽(或等同)为 to
+	 */
+	private static boolean isWidening(String from, String to) {
+		if (from.equals(to)) {
+			return true;
+		}
+		int toRank = rankOf(to);
+		if (from.equals("char")) {
+			return toRank >= rankOf("int");
+		}
+		int fromRank = rankOf(from);
+		return fromRank >= 0 && toRank > fromRank;
+	}
+
+	/**
+	 * 数值类型在拓宽转换中的次序, 非数值类型及 char 返回 -1
+	 */
+	private static int rankOf(String primitive) {
+		for (int i = 0; i < numerics.length; i++) {
+			if (numerics[i].equals(primitive)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private TypeElement superclassOf(TypeElement type) {
+		TypeMirror superclass = type.getSuperclass();
+		if (superclass.getKind() != TypeKind.DECLARED) {
+			return null;
+		}
+		TypeElement element = (TypeElement) types.asElement(superclass);
+		return element.getQualifiedName().contentEquals("java.lang.Object") ? null
+				: element;
+	}
+
+	private String packageOf(TypeElement type) {
+		PackageElement element = elements.getPackageOf(type);
+		return element.isUnnamed() ? "" : element.getQualifiedName()
+				.toString();
+	}
+
+	private void warn(VariableElement field, String reason) {
+		messager.printMessage(Kind.WARNING, "@FastBean: " + field.getSimpleName()
+				+ " property falls back to reflection because " + reason, field);
+	}
+
+}
\ No newline at end of file
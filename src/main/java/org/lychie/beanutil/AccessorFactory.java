@@ -0,0 +1,21 @@
+package org.lychie.beanutil;
+
+import java.lang.reflect.Field;
+
+/**
+ * 属性访问器工厂
+ * 
+ * @author Lychie Fan
+ */
+public interface AccessorFactory {
+
+	/**
+	 * 为属性创建访问器
+	 * 
+	 * @param field
+	 *            可访问的属性
+	 * @return 无法为该属性创建访问器时返回 null, 由调用方回退到反射访问
+	 */
+	PropertyAccessor newAccessor(Field field);
+
+}
\ No newline at end of file
@@ -0,0 +1,116 @@
+package org.lychie.beanutil;
+
+import java.util.Map;
+import java.util.HashMap;
+import org.lychie.beanutil.exception.BeanException;
+
+/**
+ * 按索引访问属性的访问器。一个类对应一个实例, 属性的索引与
+ * {@link ClassWrapper#getProperties()} 的顺序一致。<br>
+ * 通过 {@link ClassWrapper#compiled()} 获取时, 会在运行期为类生成一个子类, 以
+ * tableswitch 直接读写可访问的属性; 无法生成或无法直接访问的属性, 回退到
+ * {@link PropertyAccessor}
+ * 
+ * @author Lychie Fan
+ */
+public class BeanAccess {
+
+	private final Class<?> beanClass;
+	private final String[] names;
+	private final Map<String, Integer> indexes;
+	private final PropertyAccessor[] accessors;
+
+	/**
+	 * 创建访问器, 运行期生成的子类经此构造方法初始化
+	 * 
+	 * @param beanClass
+	 *            类
+	 * @param accessors
+	 *            按索引排列的属性访问器
+	 */
+	protected BeanAccess(Class<?> beanClass, PropertyAccessor[] accessors) {
+		int length = accessors.length;
+		this.beanClass = beanClass;
+		this.names = new String[length];
+		this.indexes = new HashMap<String, Integer>(length * 4 / 3 + 1);
+		this.accessors = accessors;
+		for (int i = 0; i < length; i++) {
+			names[i] = accessors[i].getField().getName();
+			indexes.put(names[i], i);
+		}
+	}
+
+	/**
+	 * 获取属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param index
+	 *            属性的索引
+	 * @return
+	 */
+	public Object get(Object bean, int index) {
+		return accessors[index].get(bean);
+	}
+
+	/**
+	 * 设置属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param index
+	 *            属性的索引
+	 * @param value
+	 *            属性值
+	 */
+	public void set(Object bean, int index, Object value) {
+		accessors[index].set(bean, value);
+	}
+
+	/**
+	 * 获取属性的索引
+	 * 
+	 * @param propertyName
+	 *            属性名称
+	 * @return
+	 */
+	public int indexOf(String propertyName) {
+		Integer index = indexes.get(propertyName);
+		if (index != null) {
+			return index;
+		}
+		throw new BeanException(propertyName
+				+ " property can not be found in the class "
+				+ beanClass.getSimpleName());
+	}
+
+	/**
+	 * 获取索引对应的属性名称
+	 * 
+	 * @param index
+	 *            属性的索引
+	 * @return
+	 */
+	public String getPropertyName(int index) {
+		return names[index];
+	}
+
+	/**
+	 * 获取属性的个数
+	 * 
+	 * @return
+	 */
+	public int getPropertyCount() {
+		return names.length;
+	}
+
+	/**
+	 * 是否为运行期生成的访问器
+	 * 
+	 * @return
+	 */
+	public boolean isGenerated() {
+		return getClass() != BeanAccess.class;
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,541 @@
+package org.lychie.beanutil;
+
+import java.util.Map;
+import java.util.HashMap;
+import java.util.Arrays;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.io.DataOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 为类生成 {@link BeanAccess} 子类的字节码。<br>
+ * 生成的 class 文件版本为 49(Java 5), 无需 StackMapTable。优先借助
+ * MethodHandles.privateLookupIn 将类定义在目标类所在的包中(Java 9+), 可直接访问非私有属性;
+ * 否则定义在子类加载器中, 仅能直接访问公共属性。无法直接访问的属性回退到
+ * {@link PropertyAccessor}
+ * 
+ * @author Lychie Fan
+ */
+final class BeanAccessGenerator {
+
+	private static final String superName = "org/lychie/beanutil/BeanAccess";
+	private static final String getDesc = "(Ljava/lang/Object;I)Ljava/lang/Object;";
+	private static final String setDesc = "(Ljava/lang/Object;ILjava/lang/Object;)V";
+	private static final String initDesc = "(Ljava/lang/Class;[Lorg/lychie/beanutil/PropertyAccessor;)V";
+	private static final AtomicInteger counter = new AtomicInteger();
+
+	private BeanAccessGenerator() {
+	}
+
+	/**
+	 * 生成类的访问器
+	 * 
+	 * @param beanClass
+	 *            类
+	 * @param accessors
+	 *            按索引排列的属性访问器
+	 * @return 无法生成时返回基于属性访问器的 BeanAccess
+	 */
+	static BeanAccess generate(Class<?> beanClass, PropertyAccessor[] accessors) {
+		BeanAccess access = null;
+		try {
+			access = define(beanClass, accessors);
+		} catch (Throwable e) {
+			/* 不允许定义类, 回退 */
+		}
+		if (access == null) {
+			access = new BeanAccess(beanClass, accessors);
+		}
+		return access;
+	}
+
+	/**
+	 * 定义并实例化访问器类
+	 */
+	private static BeanAccess define(Class<?> beanClass,
+			PropertyAccessor[] accessors) throws Exception {
+
+		if (beanClass.isArray() || beanClass.isPrimitive()
+				|| beanClass.isInterface()) {
+			return null;
+		}
+		String className = beanClass.getName() + "$$BeanAccess"
+				+ counter.incrementAndGet();
+		Class<?> accessClass = null;
+		Object lookup = privateLookup(beanClass);
+		if (lookup != null) {
+			byte[] bytes = generate(className, beanClass, accessors, true);
+			Method defineClass = lookup.getClass().getMethod("defineClass",
+					byte[].class);
+			accessClass = (Class<?>) defineClass.invoke(lookup, bytes);
+		} else {
+			ClassLoader parent = beanClass.getClassLoader();
+			if (parent == null) {
+				return null;
+			}
+			byte[] bytes = generate(className, beanClass, accessors, false);
+			accessClass = new AccessClassLoader(parent).define(className, bytes);
+		}
+		return (BeanAccess) accessClass.getDeclaredConstructor(Class.class,
+				PropertyAccessor[].class).newInstance(beanClass, accessors);
+	}
+
+	/**
+	 * 获取目标类的私有 Lookup, Java 9 以下或无权访问时返回 null
+	 */
+	private static Object privateLookup(Class<?> beanClass) {
+		try {
+			Method method = MethodHandles.class.getMethod("privateLookupIn",
+					Class.class, MethodHandles.Lookup.class);
+			return method.invoke(null, beanClass, MethodHandles.lookup());
+		} catch (Throwable e) {
+			return null;
+		}
+	}
+
+	/**
+	 * 生成访问器类的字节码
+	 * 
+	 * @param className
+	 *            访问器类名
+	 * @param beanClass
+	 *            类
+	 * @param accessors
+	 *            按索引排列的属性访问器
+	 * @param samePackage
+	 *            访问器类是否与目标类处于同一运行期包
+	 * @return
+	 */
+	static byte[] generate(String className, Class<?> beanClass,
+			PropertyAccessor[] accessors, boolean samePackage) {
+
+		ConstantPool pool = new ConstantPool();
+		int thisClass = pool.classRef(className.replace('.', '/'));
+		int superClass = pool.classRef(superName);
+		int length = accessors.length;
+		boolean[] readable = new boolean[length];
+		boolean[] writable = new boolean[length];
+		for (int i = 0; i < length; i++) {
+			Field field = accessors[i].getField();
+			readable[i] = isAccessible(field, beanClass, samePackage);
+			writable[i] = readable[i]
+					&& !Modifier.isFinal(field.getModifiers());
+		}
+		Code init = new Code();
+		init.u1(0x2a); // aload_0
+		init.u1(0x2b); // aload_1
+		init.u1(0x2c); // aload_2
+		init.u1(0xb7); // invokespecial
+		init.u2(pool.methodRef(superName, "<init>", initDesc));
+		init.u1(0xb1); // return
+		Code get = getCode(pool, accessors, readable);
+		Code set = setCode(pool, accessors, writable);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			int initName = pool.utf8("<init>");
+			int initType = pool.utf8(initDesc);
+			int getName = pool.utf8("get");
+			int getType = pool.utf8(getDesc);
+			int setName = pool.utf8("set");
+			int setType = pool.utf8(setDesc);
+			int codeName = pool.utf8("Code");
+			out.writeInt(0xCAFEBABE);
+			out.writeShort(0);
+			out.writeShort(49);
+			pool.write(out);
+			out.writeShort(Modifier.PUBLIC | Modifier.FINAL | 0x20); // ACC_SUPER
+			out.writeShort(thisClass);
+			out.writeShort(superClass);
+			out.writeShort(0); // interfaces
+			out.writeShort(0); // fields
+			out.writeShort(3); // methods
+			writeMethod(out, initName, initType, codeName, init, 3, 3);
+			writeMethod(out, getName, getType, codeName, get, 4, 3);
+			writeMethod(out, setName, setType, codeName, set, 4, 4);
+			out.writeShort(0); // attributes
+			out.flush();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * 生成 get(Object, int) 方法体
+	 */
+	private static Code getCode(ConstantPool pool,
+			PropertyAccessor[] accessors, boolean[] readable) {
+
+		Code code = new Code();
+		int[] cases = new int[accessors.length];
+		int[] switchAt = tableswitch(code, cases.length);
+		for (int i = 0; i < cases.length; i++) {
+			if (!readable[i]) {
+				cases[i] = -1;
+				continue;
+			}
+			Field field = accessors[i].getField();
+			Class<?> type = field.getType();
+			String owner = internalName(field.getDeclaringClass());
+			cases[i] = code.length();
+			code.u1(0x2b); // aload_1
+			code.u1(0xc0); // checkcast
+			code.u2(pool.classRef(owner));
+			code.u1(0xb4); // getfield
+			code.u2(pool.fieldRef(owner, field.getName(), descriptor(type)));
+			if (type.isPrimitive()) {
+				String wrapper = internalName(BeanClass
+						.getWrapperClass(type));
+				code.u1(0xb8); // invokestatic
+				code.u2(pool.methodRef(wrapper, "valueOf", "("
+						+ descriptor(type) + ")L" + wrapper + ";"));
+			}
+			code.u1(0xb0); // areturn
+		}
+		int fallback = code.length();
+		code.u1(0x2a); // aload_0
+		code.u1(0x2b); // aload_1
+		code.u1(0x1c); // iload_2
+		code.u1(0xb7); // invokespecial
+		code.u2(pool.methodRef(superName, "get", getDesc));
+		code.u1(0xb0); // areturn
+		patchTableswitch(code, switchAt, cases, fallback);
+		return code;
+	}
+
+	/**
+	 * 生成 set(Object, int, Object) 方法体
+	 */
+	private static Code setCode(ConstantPool pool,
+			PropertyAccessor[] accessors, boolean[] writable) {
+
+		Code code = new Code();
+		int[] cases = new int[accessors.length];
+		int[] switchAt = tableswitch(code, cases.length);
+		for (int i = 0; i < cases.length; i++) {
+			if (!writable[i]) {
+				cases[i] = -1;
+				continue;
+			}
+			Field field = accessors[i].getField();
+			Class<?> type = field.getType();
+			String owner = internalName(field.getDeclaringClass());
+			cases[i] = code.length();
+			code.u1(0x2b); // aload_1
+			code.u1(0xc0); // checkcast
+			code.u2(pool.classRef(owner));
+			code.u1(0x2d); // aload_3
+			if (type.isPrimitive()) {
+				String wrapper = internalName(BeanClass
+						.getWrapperClass(type));
+				code.u1(0xc0); // checkcast
+				code.u2(pool.classRef(wrapper));
+				code.u1(0xb6); // invokevirtual
+				code.u2(pool.methodRef(wrapper, type.getName() + "Value",
+						"()" + descriptor(type)));
+			} else if (type != Object.class) {
+				code.u1(0xc0); // checkcast
+				code.u2(pool.classRef(internalName(type)));
+			}
+			code.u1(0xb5); // putfield
+			code.u2(pool.fieldRef(owner, field.getName(), descriptor(type)));
+			code.u1(0xb1); // return
+		}
+		int fallback = code.length();
+		code.u1(0x2a); // aload_0
+		code.u1(0x2b); // aload_1
+		code.u1(0x1c); // iload_2
+		code.u1(0x2d); // aload_3
+		code.u1(0xb7); // invokespecial
+		code.u2(pool.methodRef(superName, "set", setDesc));
+		code.u1(0xb1); // return
+		patchTableswitch(code, switchAt, cases, fallback);
+		return code;
+	}
+
+	/**
+	 * 写入 iload_2 与 tableswitch 指令, 跳转偏移留待回填
+	 * 
+	 * @return [tableswitch 指令位置, 默认偏移位置]; 无属性时返回 null
+	 */
+	private static int[] tableswitch(Code code, int count) {
+		if (count == 0) {
+			return null;
+		}
+		code.u1(0x1c); // iload_2
+		int opcode = code.length();
+		code.u1(0xaa); // tableswitch
+		while (code.length() % 4 != 0) {
+			code.u1(0);
+		}
+		int defaultAt = code.length();
+		code.u4(0);
+		code.u4(0);
+		code.u4(count - 1);
+		for (int i = 0; i < count; i++) {
+			code.u4(0);
+		}
+		return new int[] { opcode, defaultAt };
+	}
+
+	/**
+	 * 回填 tableswitch 的跳转偏移
+	 */
+	private static void patchTableswitch(Code code, int[] switchAt,
+			int[] cases, int fallback) {
+
+		if (switchAt == null) {
+			return;
+		}
+		int opcode = switchAt[0];
+		int at = switchAt[1];
+		code.patch(at, fallback - opcode);
+		at += 12;
+		for (int target : cases) {
+			code.patch(at, (target < 0 ? fallback : target) - opcode);
+			at += 4;
+		}
+	}
+
+	/**
+	 * 写入方法
+	 */
+	private static void writeMethod(DataOutputStream out, int name,
+			int descriptor, int codeName, Code code, int maxStack,
+			int maxLocals) throws Exception {
+
+		out.writeShort(Modifier.PUBLIC);
+		out.writeShort(name);
+		out.writeShort(descriptor);
+		out.writeShort(1);
+		out.writeShort(codeName);
+		out.writeInt(12 + code.length());
+		out.writeShort(maxStack);
+		out.writeShort(maxLocals);
+		out.writeInt(code.length());
+		out.write(code.toByteArray());
+		out.writeShort(0); // exception table
+		out.writeShort(0); // attributes
+	}
+
+	/**
+	 * 生成的访问器类能否直接访问属性
+	 */
+	private static boolean isAccessible(Field field, Class<?> beanClass,
+			boolean samePackage) {
+
+		int modifiers = field.getModifiers();
+		if (Modifier.isPrivate(modifiers)) {
+			return false;
+		}
+		Class<?> owner = field.getDeclaringClass();
+		if (!isAccessible(owner, beanClass, samePackage)
+				|| !isAccessible(field.getType(), beanClass, samePackage)) {
+			return false;
+		}
+		return Modifier.isPublic(modifiers)
+				|| (samePackage && isSamePackage(owner, beanClass));
+	}
+
+	/**
+	 * 生成的访问器类能否访问类型
+	 */
+	private static boolean isAccessible(Class<?> type, Class<?> beanClass,
+			boolean samePackage) {
+
+		while (type.isArray()) {
+			type = type.getComponentType();
+		}
+		if (type.isPrimitive() || Modifier.isPublic(type.getModifiers())) {
+			return true;
+		}
+		return samePackage && isSamePackage(type, beanClass);
+	}
+
+	/**
+	 * 是否处于同一运行期包
+	 */
+	private static boolean isSamePackage(Class<?> type, Class<?> beanClass) {
+		return type.getClassLoader() == beanClass.getClassLoader()
+				&& packageOf(type).equals(packageOf(beanClass));
+	}
+
+	private static String packageOf(Class<?> type) {
+		String name = type.getName();
+		int index = name.lastIndexOf('.');
+		return index == -1 ? "" : name.substring(0, index);
+	}
+
+	private static String internalName(Class<?> type) {
+		return type.getName().replace('.', '/');
+	}
+
+	private static String descriptor(Class<?> type) {
+		if (type.isArray()) {
+			return internalName(type);
+		}
+		if (!type.isPrimitive()) {
+			return "L" + internalName(type) + ";";
+		}
+		if (type == boolean.class) {
+			return "Z";
+		}
+		if (type == long.class) {
+			return "J";
+		}
+		return String.valueOf(Character.toUpperCase(type.getName().charAt(0)));
+	}
+
+	/**
+	 * 方法体字节
+	 */
+	private static class Code {
+
+		private byte[] bytes = new byte[64];
+		private int length;
+
+		void u1(int value) {
+			if (length == bytes.length) {
+				bytes = Arrays.copyOf(bytes, length * 2);
+			}
+			bytes[length++] = (byte) value;
+		}
+
+		void u2(int value) {
+			u1(value >>> 8);
+			u1(value);
+		}
+
+		void u4(int value) {
+			u2(value >>> 16);
+			u2(value);
+		}
+
+		void patch(int at, int value) {
+			bytes[at] = (byte) (value >>> 24);
+			bytes[at + 1] = (byte) (value >>> 16);
+			bytes[at + 2] = (byte) (value >>> 8);
+			bytes[at + 3] = (byte) value;
+		}
+
+		int length() {
+			return length;
+		}
+
+		byte[] toByteArray() {
+			return Arrays.copyOf(bytes, length);
+		}
+
+	}
+
+	/**
+	 * 常量池
+	 */
+	private static class ConstantPool {
+
+		private final Map<String, Integer> entries = new HashMap<String, Integer>();
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		private final DataOutputStream out = new DataOutputStream(bytes);
+		private int count = 1;
+
+		int utf8(String value) {
+			Integer index = entries.get("U" + value);
+			if (index == null) {
+				index = add("U" + value, 1);
+				try {
+					out.writeUTF(value);
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+			}
+			return index;
+		}
+
+		int classRef(String internalName) {
+			String key = "C" + internalName;
+			Integer index = entries.get(key);
+			if (index == null) {
+				int name = utf8(internalName);
+				index = add(key, 7);
+				u2(name);
+			}
+			return index;
+		}
+
+		int fieldRef(String owner, String name, String descriptor) {
+			return memberRef(9, owner, name, descriptor);
+		}
+
+		int methodRef(String owner, String name, String descriptor) {
+			return memberRef(10, owner, name, descriptor);
+		}
+
+		private int memberRef(int tag, String owner, String name,
+				String descriptor) {
+
+			String key = tag + owner + "." + name + ":" + descriptor;
+			Integer index = entries.get(key);
+			if (index == null) {
+				int ownerIndex = classRef(owner);
+				int nameAndType = nameAndType(name, descriptor);
+				index = add(key, tag);
+				u2(ownerIndex);
+				u2(nameAndType);
+			}
+			return index;
+		}
+
+		private int nameAndType(String name, String descriptor) {
+			String key = "N" + name + ":" + descriptor;
+			Integer index = entries.get(key);
+			if (index == null) {
+				int nameIndex = utf8(name);
+				int descriptorIndex = utf8(descriptor);
+				index = add(key, 12);
+				u2(nameIndex);
+				u2(descriptorIndex);
+			}
+			return index;
+		}
+
+		private int add(String key, int tag) {
+			int index = count++;
+			entries.put(key, index);
+			bytes.write(tag);
+			return index;
+		}
+
+		private void u2(int value) {
+			bytes.write(value >>> 8);
+			bytes.write(value);
+		}
+
+		void write(DataOutputStream target) throws Exception {
+			target.writeShort(count);
+			target.write(bytes.toByteArray());
+		}
+
+	}
+
+	/**
+	 * 定义访问器类的子类加载器
+	 */
+	private static class AccessClassLoader extends ClassLoader {
+
+		AccessClassLoader(ClassLoader parent) {
+			super(parent);
+		}
+
+		Class<?> define(String name, byte[] bytes) {
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -1,14 +1,19 @@
 package org.lychie.beanutil;
 
-import java.util.Set;
 import java.util.List;
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.lang.reflect.Type;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.ParameterizedType;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentHashMap;
 import org.lychie.beanutil.exception.BeanException;
-import org.lychie.beanutil.exception.AbnormalException;
 
 /**
  * Bean class 工具类
@@ -17,18 +22,30 @@ import org.lychie.beanutil.exception.AbnormalException;
  */
 public class BeanClass {
 
+	/* 以类为键, 构造方法参数类型到实例工厂的映射为值 */
+	private static final ClassValue<ConcurrentMap<List<Class<?>>, Object>> factories = new ClassValue<ConcurrentMap<List<Class<?>>, Object>>() {
+		@Override
+		protected ConcurrentMap<List<Class<?>>, Object> computeValue(
+				Class<?> type) {
+			return new ConcurrentHashMap<List<Class<?>>, Object>();
+		}
+	};
+	/* 以类为键的类型层次缓存 */
+	private static final ClassValue<TypeHierarchy> hierarchies = new ClassValue<TypeHierarchy>() {
+		@Override
+		protected TypeHierarchy computeValue(Class<?> type) {
+			return new TypeHierarchy(type);
+		}
+	};
+
 	/**
-	 * 创建类的一个实例
+	 * 创建类的一个实例。使用 {@link #getFactory(Class)} 缓存的实例工厂
 	 * 
 	 * @param beanClass
 	 *            类
 	 */
 	public static <E> E newInstance(Class<E> beanClass) {
-		try {
-			return beanClass.newInstance();
-		} catch (Throwable e) {
-			throw new AbnormalException(e);
-		}
+		return getFactory(beanClass).get();
 	}
 
 	/**
@@ -58,6 +75,111 @@ public class BeanClass {
 		return BeanMethod.invokeConstructor(beanClass, argValues, argTypes);
 	}
 
+	/**
+	 * 获取通过无参构造方法创建实例的工厂。工厂按类缓存, 内部持有构造方法的方法句柄,
+	 * 创建实例时不再查找构造方法, 也不做反射的访问检查
+	 * 
+	 * @param beanClass
+	 *            类
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> Supplier<E> getFactory(Class<E> beanClass) {
+		ConcurrentMap<List<Class<?>>, Object> map = factories.get(beanClass);
+		List<Class<?>> key = Collections.emptyList();
+		Object factory = map.get(key);
+		if (factory == null) {
+			factory = new HandleFactory<E>(constructorHandle(beanClass,
+					new Class<?>[0]));
+			map.put(key, factory);
+		}
+		return (Supplier<E>) factory;
+	}
+
+	/**
+	 * 获取通过指定构造方法创建实例的工厂。工厂按类及构造方法的参数类型缓存,
+	 * 内部持有构造方法的方法句柄
+	 * 
+	 * @param beanClass
+	 *            类
+	 * @param argTypes
+	 *            构造方法的参数类型
+	 * @return 以构造方法参数值的数组为参数的工厂
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> Function<Object[], E> getFactory(Class<E> beanClass,
+			Class<?>... argTypes) {
+
+		if (argTypes == null) {
+			argTypes = new Class<?>[0];
+		}
+		ConcurrentMap<List<Class<?>>, Object> map = factories.get(beanClass);
+		List<Class<?>> key = Arrays.<Class<?>> asList(argTypes.clone());
+		Object factory = map.get(key);
+		if (factory == null) {
+			factory = new HandleFactory<E>(constructorHandle(beanClass,
+					argTypes));
+			map.put(key, factory);
+		}
+		return (Function<Object[], E>) factory;
+	}
+
+	/**
+	 * 获取构造方法的方法句柄, 类型为 (Object[])Object
+	 * 
+	 * @param beanClass
+	 *            类
+	 * @param argTypes
+	 *            构造方法的参数类型
+	 * @return
+	 */
+	private static MethodHandle constructorHandle(Class<?> beanClass,
+			Class<?>[] argTypes) {
+
+		try {
+			Constructor<?> constructor = beanClass
+					.getDeclaredConstructor(argTypes);
+			constructor.setAccessible(true);
+			MethodHandle handle = MethodHandles.lookup().unreflectConstructor(
+					constructor);
+			return handle.asType(MethodType.genericMethodType(argTypes.length))
+					.asSpreader(Object[].class, argTypes.length);
+		} catch (Throwable e) {
+			throw BeanMetrics.abnormal(e);
+		}
+	}
+
+	/**
+	 * 基于构造方法句柄的实例工厂
+	 */
+	private static final class HandleFactory<E> implements Supplier<E>,
+			Function<Object[], E> {
+
+		private static final Object[] noArgs = new Object[0];
+
+		private final MethodHandle handle;
+
+		HandleFactory(MethodHandle handle) {
+			this.handle = handle;
+		}
+
+		@Override
+		public E get() {
+			return apply(noArgs);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public E apply(Object[] args) {
+			try {
+				return (E) (Object) handle.invokeExact(args);
+			} catch (Throwable e) {
+				throw BeanMetrics.abnormal(e);
+			}
+		}
+
+	}
+
 	/**
 	 * 根据类全名获取类的Class实例
 	 * 
@@ -68,7 +190,7 @@ public class BeanClass {
 		try {
 			return Class.forName(className);
 		} catch (Throwable e) {
-			throw new AbnormalException(e);
+			throw BeanMetrics.abnormal(e);
 		}
 	}
 
@@ -92,9 +214,13 @@ public class BeanClass {
 	 *            被测试的类
 	 */
 	public static boolean isFrom(Object testObject, Class<?> targetClass) {
+		if (targetClass == null) {
+			throw new NullPointerException(
+					"the argument targetClass can not be null");
+		}
 		if (testObject instanceof Class) {
-			Class<?> testClass = (Class<?>) testObject;
-			return targetClass.isAssignableFrom(testClass);
+			return getHierarchy((Class<?>) testObject).isSubtypeOf(
+					targetClass);
 		}
 		return targetClass.isInstance(testObject);
 	}
@@ -109,33 +235,36 @@ public class BeanClass {
 		return beanClass.getName().indexOf("$") != -1;
 	}
 
+	/**
+	 * 获取类的类型层次, 按类缓存
+	 * 
+	 * @param beanClass
+	 *            类
+	 */
+	public static TypeHierarchy getHierarchy(Class<?> beanClass) {
+		return hierarchies.get(beanClass);
+	}
+
 	/**
 	 * 获取类的超类列表
 	 * 
 	 * @param beanClass
 	 *            类
+	 * @return 缓存的不可修改的列表
 	 */
 	public static List<Class<?>> getSuperclasses(Class<?> beanClass) {
-		List<Class<?>> classes = new ArrayList<Class<?>>();
-		while ((beanClass = beanClass.getSuperclass()) != null) {
-			classes.add(beanClass);
-		}
-		return classes;
+		return getHierarchy(beanClass).getSuperclasses();
 	}
 
 	/**
-	 * 获取接口列表
+	 * 获取接口列表, 包括超类实现的接口及接口继承的接口
 	 * 
 	 * @param beanClass
 	 *            类/接口
-	 * @return 如果没有, 则返回空的集合
+	 * @return 缓存的不可修改的列表, 如果没有, 则返回空的集合
 	 */
 	public static List<Class<?>> getInterfaces(Class<?> beanClass) {
-		Set<Class<?>> set = new HashSet<Class<?>>();
-		do {
-			set.addAll(Arrays.asList(beanClass.getInterfaces()));
-		} while ((beanClass = beanClass.getSuperclass()) != null);
-		return new ArrayList<Class<?>>(set);
+		return getHierarchy(beanClass).getInterfaces();
 	}
 
 	/**
@@ -166,8 +295,84 @@ public class BeanClass {
 			throw new BeanException(beanClass.getSimpleName()
 					+ " class must have a supper class with a generic type");
 		} catch (Throwable e) {
-			throw new AbnormalException(e);
+			throw BeanMetrics.abnormal(e);
+		}
+	}
+
+	/**
+	 * 获取基本数据类型对应的包装类型
+	 * 
+	 * @param type
+	 *            类型
+	 * @return 若参数不是基本数据类型, 则原样返回
+	 */
+	public static Class<?> getWrapperClass(Class<?> type) {
+		if (!type.isPrimitive()) {
+			return type;
+		}
+		if (type == int.class) {
+			return Integer.class;
+		}
+		if (type == long.class) {
+			return Long.class;
+		}
+		if (type == double.class) {
+			return Double.class;
+		}
+		if (type == float.class) {
+			return Float.class;
+		}
+		if (type == boolean.class) {
+			return Boolean.class;
+		}
+		if (type == byte.class) {
+			return Byte.class;
+		}
+		if (type == short.class) {
+			return Short.class;
+		}
+		if (type == char.class) {
+			return Character.class;
+		}
+		return Void.class;
+	}
+
+	/**
+	 * 获取包装类型对应的基本数据类型
+	 * 
+	 * @param type
+	 *            类型
+	 * @return 若参数不是包装类型, 则原样返回
+	 */
+	public static Class<?> getPrimitiveClass(Class<?> type) {
+		if (type == Integer.class) {
+			return int.class;
+		}
+		if (type == Long.class) {
+			return long.class;
+		}
+		if (type == Double.class) {
+			return double.class;
+		}
+		if (type == Float.class) {
+			return float.class;
+		}
+		if (type == Boolean.class) {
+			return boolean.class;
+		}
+		if (type == Byte.class) {
+			return byte.class;
+		}
+		if (type == Short.class) {
+			return short.class;
+		}
+		if (type == Character.class) {
+			return char.class;
+		}
+		if (type == Void.class) {
+			return void.class;
 		}
+		return type;
 	}
 
 	/**
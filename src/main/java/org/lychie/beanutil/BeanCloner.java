@@ -0,0 +1,684 @@
+package org.lychie.beanutil;
+
+import java.io.File;
+import java.net.URI;
+import java.util.Map;
+import java.util.Set;
+import java.util.List;
+import java.util.UUID;
+import java.util.Queue;
+import java.util.Locale;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.Currency;
+import java.util.ArrayList;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.Comparator;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.regex.Pattern;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.function.Supplier;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.lychie.beanutil.exception.BeanException;
+
+/**
+ * Bean 的深复制。<br>
+ * 为每个类预先编排复制计划并缓存: 普通类依据 {@link BeanProperty#getReferableNonStaticFields(Class)}
+ * 逐个复制属性, 基本类型的属性按类型直接读写不装箱, 声明为不可变类型的属性直接共享引用;
+ * 不可变类型(String、包装类型、BigDecimal、BigInteger、枚举、java.time 等)原样返回;
+ * 基本类型数组与元素为不可变类型的数组整体复制; Date 与 Calendar 由其 clone 方法复制;
+ * 集合与 Map 创建同类实例(保留比较器等配置)后逐个复制元素, 同类无法实例化时复制为对应接口的常用实现,
+ * 替代实现不能赋值给属性时抛出异常。<br>
+ * 对象图中同一个对象只复制一次, 循环引用与共享引用得以保留; 复制借助显式的栈进行, 不受对象图深度的限制。
+ * 可以通过 {@link #register(Class, CloneStrategy)} 为类指定复制策略,
+ * 通过 {@link #registerImmutable(Class)} 声明不可变类型
+ * 
+ * @author Lychie Fan
+ */
+public final class BeanCloner {
+
+	private static final int REFERENCE = 0;
+	private static final int SHARED = 1;
+	private static final int BOOLEAN = 2;
+	private static final int BYTE = 3;
+	private static final int CHAR = 4;
+	private static final int SHORT = 5;
+	private static final int INT = 6;
+	private static final int LONG = 7;
+	private static final int FLOAT = 8;
+	private static final int DOUBLE = 9;
+
+	private static final AccessorFactory fallbackFactory = new ReflectionAccessorFactory();
+	/* 登记的版本号, 每次登记递增, 旧版本的计划会被重新编排 */
+	private static final AtomicInteger generation = new AtomicInteger();
+	private static final ConcurrentMap<Class<?>, CloneStrategy<?>> strategies = new ConcurrentHashMap<Class<?>, CloneStrategy<?>>();
+	private static final Set<Class<?>> immutables = ConcurrentHashMap.newKeySet();
+	private static final ClassValue<Plan> plans = new ClassValue<Plan>() {
+		@Override
+		protected Plan computeValue(Class<?> type) {
+			return newPlan(type);
+		}
+	};
+
+	static {
+		Class<?>[] types = { String.class, Boolean.class, Character.class,
+				Byte.class, Short.class, Integer.class, Long.class,
+				Float.class, Double.class, BigDecimal.class, BigInteger.class,
+				Class.class, UUID.class, Locale.class, Currency.class,
+				URI.class, File.class, Pattern.class, Object.class };
+		for (Class<?> type : types) {
+			immutables.add(type);
+		}
+		/* Date、Calendar 及其子类(如 Timestamp)由自身的 clone 复制, 不反射其内部的属性 */
+		strategies.put(Date.class, new CloneStrategy<Date>() {
+			@Override
+			public Date clone(Date source, CloneContext context) {
+				return (Date) source.clone();
+			}
+		});
+		strategies.put(Calendar.class, new CloneStrategy<Calendar>() {
+			@Override
+			public Calendar clone(Calendar source, CloneContext context) {
+				return (Calendar) source.clone();
+			}
+		});
+	}
+
+	private BeanCloner() {
+	}
+
+	/**
+	 * 深复制对象
+	 * 
+	 * @param bean
+	 *            对象, 可以为 null
+	 * @return
+	 * @throws BeanException
+	 *             对象图中存在没有无参构造方法且未登记复制策略的类
+	 */
+	public static <E> E deepClone(E bean) {
+		return new CloneContext().clone(bean);
+	}
+
+	/**
+	 * 为类及其子类登记复制策略, 覆盖已登记的策略
+	 * 
+	 * @param type
+	 *            类
+	 * @param strategy
+	 *            复制策略
+	 */
+	public static <E> void register(Class<E> type,
+			CloneStrategy<? super E> strategy) {
+
+		if (type == null) {
+			throw new NullPointerException("the argument type can not be null");
+		}
+		if (strategy == null) {
+			throw new NullPointerException(
+					"the argument strategy can not be null");
+		}
+		strategies.put(type, strategy);
+		generation.incrementAndGet();
+	}
+
+	/**
+	 * 声明不可变类型, 此类型(不含子类)的对象在复制时共享而不复制
+	 * 
+	 * @param type
+	 *            类
+	 */
+	public static void registerImmutable(Class<?> type) {
+		if (type == null) {
+			throw new NullPointerException("the argument type can not be null");
+		}
+		immutables.add(type);
+		generation.incrementAndGet();
+	}
+
+	/**
+	 * 获取类的复制计划
+	 * 
+	 * @param type
+	 *            类
+	 * @return
+	 */
+	static Plan planOf(Class<?> type) {
+		Plan plan = plans.get(type);
+		if (plan.version != generation.get()) {
+			plans.remove(type);
+			plan = plans.get(type);
+		}
+		return plan;
+	}
+
+	private static boolean isImmutable(Class<?> type) {
+		return immutables.contains(type) || type.isEnum()
+				|| (type.getSuperclass() != null && type.getSuperclass().isEnum())
+				|| type.getName().startsWith("java.time.")
+				|| Path.class.isAssignableFrom(type);
+	}
+
+	private static CloneStrategy<?> strategyOf(Class<?> type) {
+		for (Class<?> superclass : BeanClass.getHierarchy(type)
+				.getSuperclasses()) {
+			CloneStrategy<?> strategy = strategies.get(superclass);
+			if (strategy != null) {
+				return strategy;
+			}
+		}
+		for (Class<?> face : BeanClass.getInterfaces(type)) {
+			CloneStrategy<?> strategy = strategies.get(face);
+			if (strategy != null) {
+				return strategy;
+			}
+		}
+		return null;
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static Plan newPlan(Class<?> type) {
+		int version = generation.get();
+		CloneStrategy strategy = strategies.get(type);
+		if (strategy == null) {
+			strategy = strategyOf(type);
+		}
+		if (strategy != null) {
+			return new StrategyPlan(version, strategy);
+		}
+		if (isImmutable(type)) {
+			return new Plan(version, true, false);
+		}
+		if (type.isArray()) {
+			return new ArrayPlan(version, type.getComponentType());
+		}
+		if (EnumSet.class.isAssignableFrom(type)) {
+			return new EnumSetPlan(version);
+		}
+		if (Collection.class.isAssignableFrom(type)) {
+			return new CollectionPlan(version, type);
+		}
+		if (Map.class.isAssignableFrom(type)) {
+			return new MapPlan(version, type);
+		}
+		return new BeanPlan(version, type);
+	}
+
+	/**
+	 * 类的公共无参构造方法, 不存在时返回 null
+	 */
+	private static Supplier<?> publicFactoryOf(Class<?> type) {
+		if (!Modifier.isPublic(type.getModifiers())
+				|| Modifier.isAbstract(type.getModifiers())) {
+			return null;
+		}
+		for (Constructor<?> constructor : type.getConstructors()) {
+			if (constructor.getParameterTypes().length == 0) {
+				return BeanClass.getFactory(type);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 类的公共方法, 不存在时返回 null
+	 */
+	private static Method publicMethodOf(Class<?> type, String name) {
+		try {
+			Method method = type.getMethod(name);
+			return Modifier.isPublic(method.getDeclaringClass().getModifiers()) ? method
+					: null;
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * 复制计划。先由 allocate 创建副本, 需要时再由 fill 填充其属性或元素
+	 */
+	static class Plan extends CloneContext.Step {
+
+		final int version;
+		/* 对象是否共享而不复制 */
+		final boolean shared;
+		/* 副本创建后是否还需要填充 */
+		final boolean filling;
+
+		Plan(int version, boolean shared, boolean filling) {
+			this.version = version;
+			this.shared = shared;
+			this.filling = filling;
+		}
+
+		Object allocate(Object source, CloneContext context) {
+			return source;
+		}
+
+		void fill(Object source, Object copy, CloneContext context) {
+		}
+
+		@Override
+		final void run(Object source, Object copy, CloneContext context) {
+			fill(source, copy, context);
+		}
+
+	}
+
+	/**
+	 * 登记的复制策略
+	 */
+	private static final class StrategyPlan extends Plan {
+
+		private final CloneStrategy<Object> strategy;
+
+		StrategyPlan(int version, CloneStrategy<Object> strategy) {
+			super(version, false, false);
+			this.strategy = strategy;
+		}
+
+		@Override
+		Object allocate(Object source, CloneContext context) {
+			return strategy.clone(source, context);
+		}
+
+	}
+
+	/**
+	 * 数组。基本类型数组与元素为不可变类型的数组整体复制
+	 */
+	private static final class ArrayPlan extends Plan {
+
+		private final Class<?> componentType;
+
+		ArrayPlan(int version, Class<?> componentType) {
+			super(version, false, !componentType.isPrimitive()
+					&& !(Modifier.isFinal(componentType.getModifiers()) && isImmutable(componentType)));
+			this.componentType = componentType;
+		}
+
+		@Override
+		Object allocate(Object source, CloneContext context) {
+			int length = Array.getLength(source);
+			Object copy = Array.newInstance(componentType, length);
+			if (!filling) {
+				System.arraycopy(source, 0, copy, 0, length);
+			}
+			return copy;
+		}
+
+		@Override
+		void fill(Object source, Object copy, CloneContext context) {
+			Object[] from = (Object[]) source;
+			Object[] to = (Object[]) copy;
+			for (int i = 0; i < from.length; i++) {
+				to[i] = context.clone(from[i]);
+			}
+		}
+
+	}
+
+	/**
+	 * EnumSet, 元素为不可变的枚举
+	 */
+	private static final class EnumSetPlan extends Plan {
+
+		EnumSetPlan(int version) {
+			super(version, false, false);
+		}
+
+		@Override
+		Object allocate(Object source, CloneContext context) {
+			return ((EnumSet<?>) source).clone();
+		}
+
+	}
+
+	/**
+	 * 集合与 Map。副本依次尝试: 公共的 clone 方法(之后清空, 保留比较器、访问顺序等配置)、
+	 * 以源对象的比较器调用带比较器的构造方法、公共无参构造方法, 都不可用时创建对应接口的常用实现。<br>
+	 * 元素先被复制为(可能尚未填充的)副本, 全部填充后才放入容器, 以免散列或排序用到未填充的元素
+	 */
+	private abstract static class ContainerPlan extends Plan {
+
+		private final Method cloner;
+		private final Method comparator;
+		private final Constructor<?> sortedConstructor;
+		private final Supplier<?> factory;
+		private final CloneContext.Step finish = new CloneContext.Step() {
+			@Override
+			void run(Object copy, Object elements, CloneContext context) {
+				finish(copy, (Object[]) elements);
+			}
+		};
+
+		ContainerPlan(int version, Class<?> type) {
+			super(version, false, true);
+			this.cloner = Cloneable.class.isAssignableFrom(type) ? publicMethodOf(
+					type, "clone") : null;
+			Method comparator = publicMethodOf(type, "comparator");
+			if (comparator != null
+					&& comparator.getReturnType() != Comparator.class) {
+				comparator = null;
+			}
+			this.comparator = comparator;
+			Constructor<?> sortedConstructor = null;
+			if (comparator != null && Modifier.isPublic(type.getModifiers())
+					&& !Modifier.isAbstract(type.getModifiers())) {
+				try {
+					sortedConstructor = type.getConstructor(Comparator.class);
+				} catch (NoSuchMethodException e) {
+					try {
+						sortedConstructor = type.getConstructor(int.class,
+								Comparator.class);
+					} catch (NoSuchMethodException ex) {
+						/* ignore */
+					}
+				}
+			}
+			this.sortedConstructor = sortedConstructor;
+			/* 有比较器的容器不用无参构造方法, 否则比较器会丢失 */
+			this.factory = comparator == null ? publicFactoryOf(type) : null;
+		}
+
+		@Override
+		Object allocate(Object source, CloneContext context) {
+			try {
+				if (cloner != null) {
+					Object copy = cloner.invoke(source);
+					clear(copy);
+					return copy;
+				}
+				if (sortedConstructor != null) {
+					Object order = comparator.invoke(source);
+					if (sortedConstructor.getParameterTypes().length == 1) {
+						return sortedConstructor.newInstance(order);
+					}
+					return sortedConstructor.newInstance(
+							Math.max(sizeOf(source), 1), order);
+				}
+			} catch (InvocationTargetException e) {
+				throw BeanMetrics.abnormal(e.getCause());
+			} catch (ReflectiveOperationException e) {
+				throw BeanMetrics.abnormal(e);
+			}
+			if (factory != null) {
+				return factory.get();
+			}
+			return replacement(source);
+		}
+
+		@Override
+		void fill(Object source, Object copy, CloneContext context) {
+			Object[] elements = elementsOf(source);
+			/* 先于元素的填充步骤压栈, 因而在全部元素填充之后执行 */
+			context.schedule(finish, copy, elements);
+			for (int i = 0; i < elements.length; i++) {
+				elements[i] = context.clone(elements[i]);
+			}
+		}
+
+		abstract int sizeOf(Object source);
+
+		abstract void clear(Object copy);
+
+		abstract Object replacement(Object source);
+
+		abstract Object[] elementsOf(Object source);
+
+		abstract void finish(Object copy, Object[] elements);
+
+	}
+
+	/**
+	 * 集合
+	 */
+	private static final class CollectionPlan extends ContainerPlan {
+
+		CollectionPlan(int version, Class<?> type) {
+			super(version, type);
+		}
+
+		@Override
+		int sizeOf(Object source) {
+			return ((Collection<?>) source).size();
+		}
+
+		@Override
+		void clear(Object copy) {
+			((Collection<?>) copy).clear();
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		Object replacement(Object source) {
+			Collection<Object> from = (Collection<Object>) source;
+			if (from instanceof SortedSet) {
+				return new TreeSet<Object>(((SortedSet<Object>) from).comparator());
+			}
+			if (from instanceof List) {
+				return new ArrayList<Object>(from.size());
+			}
+			if (from instanceof Set) {
+				return new LinkedHashSet<Object>(from.size() * 4 / 3 + 1);
+			}
+			if (from instanceof Queue) {
+				return new LinkedList<Object>();
+			}
+			return new ArrayList<Object>(from.size());
+		}
+
+		@Override
+		Object[] elementsOf(Object source) {
+			return ((Collection<?>) source).toArray();
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		void finish(Object copy, Object[] elements) {
+			Collection<Object> to = (Collection<Object>) copy;
+			for (Object element : elements) {
+				to.add(element);
+			}
+		}
+
+	}
+
+	/**
+	 * Map, 键与值依次存放在元素数组中
+	 */
+	private static final class MapPlan extends ContainerPlan {
+
+		MapPlan(int version, Class<?> type) {
+			super(version, type);
+		}
+
+		@Override
+		int sizeOf(Object source) {
+			return ((Map<?, ?>) source).size();
+		}
+
+		@Override
+		void clear(Object copy) {
+			((Map<?, ?>) copy).clear();
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		Object replacement(Object source) {
+			Map<Object, Object> from = (Map<Object, Object>) source;
+			if (from instanceof SortedMap) {
+				return new TreeMap<Object, Object>(
+						((SortedMap<Object, Object>) from).comparator());
+			}
+			return new LinkedHashMap<Object, Object>(from.size() * 4 / 3 + 1);
+		}
+
+		@Override
+		Object[] elementsOf(Object source) {
+			List<Object> elements = new ArrayList<Object>();
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) source).entrySet()) {
+				elements.add(entry.getKey());
+				elements.add(entry.getValue());
+			}
+			return elements.toArray();
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		void finish(Object copy, Object[] elements) {
+			Map<Object, Object> to = (Map<Object, Object>) copy;
+			for (int i = 0; i < elements.length; i += 2) {
+				to.put(elements[i], elements[i + 1]);
+			}
+		}
+
+	}
+
+	/**
+	 * 普通类, 经无参构造方法创建实例后逐个复制属性
+	 */
+	private static final class BeanPlan extends Plan {
+
+		private final Supplier<?> factory;
+		private final PropertyAccessor[] accessors;
+		private final int[] kinds;
+
+		BeanPlan(int version, Class<?> type) {
+			super(version, false, true);
+			try {
+				type.getDeclaredConstructor();
+			} catch (NoSuchMethodException e) {
+				throw new BeanException(type.getName()
+						+ " has no no-arg constructor, register a CloneStrategy for it");
+			}
+			PropertyTable table;
+			List<Field> fields;
+			try {
+				table = ClassWrapper.wrap(type).table;
+				fields = BeanProperty.getReferableNonStaticFields(type);
+			} catch (RuntimeException e) {
+				/* 如 JDK 模块未开放的类, 其属性不可访问 */
+				throw new BeanException(type.getName()
+						+ " can not be cloned field by field (" + e.getMessage()
+						+ "), register a CloneStrategy for it");
+			}
+			this.factory = BeanClass.getFactory(type);
+			this.accessors = new PropertyAccessor[fields.size()];
+			this.kinds = new int[fields.size()];
+			for (int i = 0; i < accessors.length; i++) {
+				Field field = fields.get(i);
+				PropertyHandle handle = table.find(field.getName());
+				/* 被子类同名属性隐藏的属性不在属性表中, 以反射访问 */
+				accessors[i] = handle != null && handle.getField().equals(field) ? handle
+						.getAccessor() : fallbackFactory.newAccessor(field);
+				kinds[i] = kindOf(field.getType());
+			}
+		}
+
+		@Override
+		Object allocate(Object source, CloneContext context) {
+			return factory.get();
+		}
+
+		@Override
+		void fill(Object source, Object copy, CloneContext context) {
+			for (int i = 0; i < accessors.length; i++) {
+				PropertyAccessor accessor = accessors[i];
+				switch (kinds[i]) {
+				case SHARED:
+					accessor.set(copy, accessor.get(source));
+					break;
+				case BOOLEAN:
+					accessor.setBoolean(copy, accessor.getBoolean(source));
+					break;
+				case BYTE:
+					accessor.setByte(copy, accessor.getByte(source));
+					break;
+				case CHAR:
+					accessor.setChar(copy, accessor.getChar(source));
+					break;
+				case SHORT:
+					accessor.setShort(copy, accessor.getShort(source));
+					break;
+				case INT:
+					accessor.setInt(copy, accessor.getInt(source));
+					break;
+				case LONG:
+					accessor.setLong(copy, accessor.getLong(source));
+					break;
+				case FLOAT:
+					accessor.setFloat(copy, accessor.getFloat(source));
+					break;
+				case DOUBLE:
+					accessor.setDouble(copy, accessor.getDouble(source));
+					break;
+				default:
+					Object value = context.clone(accessor.get(source));
+					Class<?> type = accessor.getField().getType();
+					if (value != null && !type.isInstance(value)) {
+						/* 容器的替代实现不能赋值给声明为具体类型的属性 */
+						throw new BeanException("the copy of type "
+								+ value.getClass().getName()
+								+ " can not be assigned to the property "
+								+ accessor.getField().getName() + " of type "
+								+ type.getName()
+								+ ", register a CloneStrategy for it");
+					}
+					accessor.set(copy, value);
+				}
+			}
+		}
+
+		private static int kindOf(Class<?> type) {
+			if (type == boolean.class) {
+				return BOOLEAN;
+			}
+			if (type == byte.class) {
+				return BYTE;
+			}
+			if (type == char.class) {
+				return CHAR;
+			}
+			if (type == short.class) {
+				return SHORT;
+			}
+			if (type == int.class) {
+				return INT;
+			}
+			if (type == long.class) {
+				return LONG;
+			}
+			if (type == float.class) {
+				return FLOAT;
+			}
+			if (type == double.class) {
+				return DOUBLE;
+			}
+			/* 声明类型为 final 的不可变类型时, 属性值必然不可变 */
+			if (Modifier.isFinal(type.getModifiers()) && isImmutable(type)
+					&& strategyOf(type) == null) {
+				return SHARED;
+			}
+			return REFERENCE;
+		}
+
+	}
+
+}
\ No newline at end of file
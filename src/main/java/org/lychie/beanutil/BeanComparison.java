@@ -0,0 +1,622 @@
+package org.lychie.beanutil;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.List;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Collections;
+import org.lychie.beanutil.exception.BeanException;
+
+/**
+ * 按类编译的结构化比较: 相等、散列、排序与差异。<br>
+ * 依据 {@link ClassWrapper} 的属性表一次性确定每个属性的比较方式并按类缓存,
+ * 基本类型的属性通过属性句柄的类型化方法比较, 不产生装箱对象; 相等判断在第一个不同的属性处返回,
+ * {@link #diff(Object, Object)} 在没有变化时不分配对象。
+ * 浮点数按 {@link Double#equals(Object)} 的语义比较, 数组按元素比较;
+ * 没有覆盖 equals 方法的非 JDK 类型的属性值(嵌套的 Bean)按其自身类的属性逐一比较,
+ * 对象数组、List 的元素与 Map 的值同样按此规则比较; Map 的键、Set 及其余集合按其自身的 equals 比较。<br>
+ * 嵌套比较不递归进行, 待比较的对象对压入显式的栈, 并按对象的同一性记录已比较过的对象对,
+ * 存在循环引用或很长的引用链时既不会无限递归也不会耗尽调用栈。
+ * 散列只计入有限层数的嵌套 Bean 与容器, 因此结构相同而环的长度不同的对象图得到相同的散列值
+ * 
+ * @author Lychie Fan
+ */
+public final class BeanComparison<E> {
+
+	private static final ClassValue<BeanComparison<?>> cache = new ClassValue<BeanComparison<?>>() {
+		@Override
+		@SuppressWarnings({ "rawtypes", "unchecked" })
+		protected BeanComparison<?> computeValue(Class<?> type) {
+			return new BeanComparison(type);
+		}
+	};
+
+	/* 类是否为沿用 Object 的 equals 方法的非 JDK 类型, 是则按属性比较 */
+	private static final ClassValue<Boolean> structural = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			if (type.isArray() || type.isInterface() || isJdkType(type)) {
+				return false;
+			}
+			try {
+				return type.getMethod("equals", Object.class)
+						.getDeclaringClass() == Object.class;
+			} catch (NoSuchMethodException e) {
+				return false;
+			}
+		}
+	};
+
+	/* 散列计入的嵌套 Bean 与容器的层数 */
+	private static final int hashDepth = 3;
+	/* 属性值的浅比较结果 */
+	private static final int different = 0;
+	private static final int same = 1;
+	private static final int deep = 2;
+
+	private final Class<E> beanClass;
+	private final PropertyTable table;
+	private final Property[] properties;
+
+	private BeanComparison(Class<E> beanClass) {
+		this.beanClass = beanClass;
+		this.table = ClassWrapper.wrap(beanClass).table;
+		PropertyHandle[] handles = table.all();
+		this.properties = new Property[handles.length];
+		for (int i = 0; i < handles.length; i++) {
+			properties[i] = new Property(handles[i]);
+		}
+	}
+
+	/**
+	 * 获取类的比较, 按类缓存
+	 * 
+	 * @param beanClass
+	 *            类
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> BeanComparison<E> of(Class<E> beanClass) {
+		if (beanClass == null) {
+			throw new NullPointerException(
+					"the argument beanClass can not be null");
+		}
+		return (BeanComparison<E>) cache.get(beanClass);
+	}
+
+	/**
+	 * 获取比较对应的类
+	 * 
+	 * @return
+	 */
+	public Class<E> getBeanClass() {
+		return beanClass;
+	}
+
+	/**
+	 * 两个对象的全部属性是否相等
+	 * 
+	 * @param a
+	 *            对象, 可以为 null
+	 * @param b
+	 *            对象, 可以为 null
+	 * @return
+	 */
+	public boolean equals(E a, E b) {
+		return equals(a, b, null);
+	}
+
+	private boolean equals(Object a, Object b, Walk walk) {
+		if (a == b) {
+			return true;
+		}
+		if (a == null || b == null) {
+			return false;
+		}
+		for (Property property : properties) {
+			if (!property.equal(a, b, walk)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 由全部属性计算散列值, 与 {@link #equals(Object, Object)} 一致
+	 * 
+	 * @param bean
+	 *            对象, 可以为 null
+	 * @return null 返回 0
+	 */
+	public int hashCode(E bean) {
+		return hashCode(bean, hashDepth);
+	}
+
+	private int hashCode(Object bean, int depth) {
+		if (bean == null) {
+			return 0;
+		}
+		int hash = 1;
+		for (Property property : properties) {
+			hash = 31 * hash + property.hash(bean, depth);
+		}
+		return hash;
+	}
+
+	/**
+	 * 获取按属性依次比较的比较器。属性值须实现 Comparable, null 排在最前
+	 * 
+	 * @param propertyPaths
+	 *            属性名称或 {@link PropertyPath} 支持的属性路径
+	 * @return
+	 */
+	public Comparator<E> compareBy(String... propertyPaths) {
+		if (propertyPaths == null || propertyPaths.length == 0) {
+			throw new IllegalArgumentException(
+					"at least one property path is required");
+		}
+		final Comparator<Object>[] keys = newKeys(propertyPaths.length);
+		for (int i = 0; i < keys.length; i++) {
+			PropertyHandle handle = table.find(propertyPaths[i]);
+			keys[i] = handle != null ? new Property(handle)
+					: new PathKey(PropertyPath.compile(propertyPaths[i]));
+		}
+		return new Comparator<E>() {
+
+			@Override
+			public int compare(E a, E b) {
+				for (Comparator<Object> key : keys) {
+					int result = key.compare(a, b);
+					if (result != 0) {
+						return result;
+					}
+				}
+				return 0;
+			}
+
+		};
+	}
+
+	/**
+	 * 获取两个对象之间发生变化的属性
+	 * 
+	 * @param a
+	 *            原来的对象
+	 * @param b
+	 *            新的对象
+	 * @return 按属性索引排列, 没有变化时返回空的 List
+	 */
+	public List<PropertyChange> diff(E a, E b) {
+		if (a == null) {
+			throw new NullPointerException("the argument a can not be null");
+		}
+		if (b == null) {
+			throw new NullPointerException("the argument b can not be null");
+		}
+		List<PropertyChange> changes = null;
+		for (Property property : properties) {
+			if (!property.equal(a, b, null)) {
+				if (changes == null) {
+					changes = new ArrayList<PropertyChange>();
+				}
+				PropertyHandle handle = property.handle;
+				changes.add(new PropertyChange(handle.getName(), handle
+						.get(a), handle.get(b)));
+			}
+		}
+		return changes == null ? Collections.<PropertyChange> emptyList()
+				: changes;
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static Comparator<Object>[] newKeys(int length) {
+		return new Comparator[length];
+	}
+
+	/**
+	 * 比较两个属性值, null 排在最前
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static int compareValues(Object x, Object y, String name) {
+		if (x == y) {
+			return 0;
+		}
+		if (x == null) {
+			return -1;
+		}
+		if (y == null) {
+			return 1;
+		}
+		if (!(x instanceof Comparable)) {
+			throw new BeanException(name + " property of type "
+					+ x.getClass().getName() + " is not comparable");
+		}
+		return ((Comparable) x).compareTo(y);
+	}
+
+	/**
+	 * JDK 的类型按其自身的 equals 比较, 不深入其内部的属性
+	 */
+	private static boolean isJdkType(Class<?> type) {
+		if (type.getClassLoader() == null) {
+			return true;
+		}
+		String name = type.getName();
+		return name.startsWith("java.") || name.startsWith("javax.")
+				|| name.startsWith("jdk.") || name.startsWith("sun.")
+				|| name.startsWith("com.sun.");
+	}
+
+	/**
+	 * 两个引用类型的值能否不深入其内部而确定是否相等
+	 * 
+	 * @return 需要深入比较时返回 deep
+	 */
+	private static int shallow(Object x, Object y) {
+		if (x == y) {
+			return same;
+		}
+		if (x == null || y == null) {
+			return different;
+		}
+		if (structural.get(x.getClass()) || x instanceof Object[]
+				|| x instanceof List || x instanceof Map) {
+			return deep;
+		}
+		return Objects.deepEquals(x, y) ? same : different;
+	}
+
+	/**
+	 * 计算值的散列值, 与按属性、元素的比较一致
+	 * 
+	 * @param depth
+	 *            还可深入的层数, 为 0 时嵌套的 Bean 与容器计为 0
+	 */
+	@SuppressWarnings("unchecked")
+	private static int hashOf(Object value, int depth) {
+		if (value == null) {
+			return 0;
+		}
+		Class<?> type = value.getClass();
+		if (structural.get(type)) {
+			return depth == 0 ? 0 : ((BeanComparison<Object>) cache.get(type))
+					.hashCode(value, depth - 1);
+		}
+		if (value instanceof Object[] || value instanceof List) {
+			if (depth == 0) {
+				return 0;
+			}
+			Iterable<?> elements = value instanceof List ? (List<?>) value
+					: Arrays.asList((Object[]) value);
+			int hash = 1;
+			for (Object element : elements) {
+				hash = 31 * hash + hashOf(element, depth - 1);
+			}
+			return hash;
+		}
+		if (value instanceof Map) {
+			if (depth == 0) {
+				return 0;
+			}
+			int hash = 0;
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				hash += Objects.hashCode(entry.getKey())
+						^ hashOf(entry.getValue(), depth - 1);
+			}
+			return hash;
+		}
+		if (!type.isArray()) {
+			return value.hashCode();
+		}
+		if (value instanceof int[]) {
+			return Arrays.hashCode((int[]) value);
+		}
+		if (value instanceof long[]) {
+			return Arrays.hashCode((long[]) value);
+		}
+		if (value instanceof byte[]) {
+			return Arrays.hashCode((byte[]) value);
+		}
+		if (value instanceof char[]) {
+			return Arrays.hashCode((char[]) value);
+		}
+		if (value instanceof short[]) {
+			return Arrays.hashCode((short[]) value);
+		}
+		if (value instanceof float[]) {
+			return Arrays.hashCode((float[]) value);
+		}
+		if (value instanceof double[]) {
+			return Arrays.hashCode((double[]) value);
+		}
+		return Arrays.hashCode((boolean[]) value);
+	}
+
+	/**
+	 * 属性的比较方式, 按属性类型确定
+	 */
+	private static final class Property implements Comparator<Object> {
+
+		private static final int referenceKind = 0;
+		private static final int booleanKind = 1;
+		private static final int byteKind = 2;
+		private static final int charKind = 3;
+		private static final int shortKind = 4;
+		private static final int intKind = 5;
+		private static final int longKind = 6;
+		private static final int floatKind = 7;
+		private static final int doubleKind = 8;
+
+		final PropertyHandle handle;
+		private final int kind;
+
+		Property(PropertyHandle handle) {
+			Class<?> type = handle.getType();
+			this.handle = handle;
+			if (type == boolean.class) {
+				kind = booleanKind;
+			} else if (type == byte.class) {
+				kind = byteKind;
+			} else if (type == char.class) {
+				kind = charKind;
+			} else if (type == short.class) {
+				kind = shortKind;
+			} else if (type == int.class) {
+				kind = intKind;
+			} else if (type == long.class) {
+				kind = longKind;
+			} else if (type == float.class) {
+				kind = floatKind;
+			} else if (type == double.class) {
+				kind = doubleKind;
+			} else {
+				kind = referenceKind;
+			}
+		}
+
+		/**
+		 * 比较两个对象的该属性
+		 * 
+		 * @param walk
+		 *            进行中的深入比较, 需要深入时把属性值压入其中; 为 null 时就地完成深入比较
+		 */
+		boolean equal(Object a, Object b, Walk walk) {
+			switch (kind) {
+			case booleanKind:
+				return handle.getBoolean(a) == handle.getBoolean(b);
+			case byteKind:
+				return handle.getByte(a) == handle.getByte(b);
+			case charKind:
+				return handle.getChar(a) == handle.getChar(b);
+			case shortKind:
+				return handle.getShort(a) == handle.getShort(b);
+			case intKind:
+				return handle.getInt(a) == handle.getInt(b);
+			case longKind:
+				return handle.getLong(a) == handle.getLong(b);
+			case floatKind:
+				return Float.floatToIntBits(handle.getFloat(a)) == Float
+						.floatToIntBits(handle.getFloat(b));
+			case doubleKind:
+				return Double.doubleToLongBits(handle.getDouble(a)) == Double
+						.doubleToLongBits(handle.getDouble(b));
+			default:
+				Object x = handle.get(a);
+				Object y = handle.get(b);
+				int result = shallow(x, y);
+				if (result != deep) {
+					return result == same;
+				}
+				if (walk == null) {
+					return new Walk().equal(x, y);
+				}
+				walk.push(x, y);
+				return true;
+			}
+		}
+
+		int hash(Object bean, int depth) {
+			switch (kind) {
+			case booleanKind:
+				return Boolean.hashCode(handle.getBoolean(bean));
+			case byteKind:
+				return handle.getByte(bean);
+			case charKind:
+				return handle.getChar(bean);
+			case shortKind:
+				return handle.getShort(bean);
+			case intKind:
+				return handle.getInt(bean);
+			case longKind:
+				return Long.hashCode(handle.getLong(bean));
+			case floatKind:
+				return Float.hashCode(handle.getFloat(bean));
+			case doubleKind:
+				return Double.hashCode(handle.getDouble(bean));
+			default:
+				return hashOf(handle.get(bean), depth);
+			}
+		}
+
+		@Override
+		public int compare(Object a, Object b) {
+			switch (kind) {
+			case booleanKind:
+				return Boolean.compare(handle.getBoolean(a),
+						handle.getBoolean(b));
+			case byteKind:
+				return handle.getByte(a) - handle.getByte(b);
+			case charKind:
+				return handle.getChar(a) - handle.getChar(b);
+			case shortKind:
+				return handle.getShort(a) - handle.getShort(b);
+			case intKind:
+				return Integer.compare(handle.getInt(a), handle.getInt(b));
+			case longKind:
+				return Long.compare(handle.getLong(a), handle.getLong(b));
+			case floatKind:
+				return Float.compare(handle.getFloat(a), handle.getFloat(b));
+			case doubleKind:
+				return Double.compare(handle.getDouble(a),
+						handle.getDouble(b));
+			default:
+				return compareValues(handle.get(a), handle.get(b),
+						handle.getName());
+			}
+		}
+
+	}
+
+	/**
+	 * 按属性路径比较
+	 */
+	private static final class PathKey implements Comparator<Object> {
+
+		private final PropertyPath path;
+
+		PathKey(PropertyPath path) {
+			this.path = path;
+		}
+
+		@Override
+		public int compare(Object a, Object b) {
+			return compareValues(path.get(a), path.get(b),
+					path.getExpression());
+		}
+
+	}
+
+	/**
+	 * 一次深入比较: 待比较的对象对压入显式的栈, 已进入的对象对按对象的同一性记录。
+	 * 已进入的一对对象再次出现时视为相等, 由其余属性决定结果
+	 */
+	private static final class Walk {
+
+		private final Set<Pair> entered = new HashSet<Pair>();
+		/* 待比较的对象对, 每对占两个位置 */
+		private Object[] stack = new Object[32];
+		private int size;
+
+		void push(Object x, Object y) {
+			if (size + 2 > stack.length) {
+				stack = Arrays.copyOf(stack, stack.length * 2);
+			}
+			stack[size++] = x;
+			stack[size++] = y;
+		}
+
+		boolean equal(Object x, Object y) {
+			push(x, y);
+			while (size > 0) {
+				size -= 2;
+				x = stack[size];
+				y = stack[size + 1];
+				stack[size] = stack[size + 1] = null;
+				if (!step(x, y)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * 比较一对对象, 其中需要深入比较的属性值、元素压入栈中
+		 */
+		@SuppressWarnings("unchecked")
+		private boolean step(Object x, Object y) {
+			int result = shallow(x, y);
+			if (result != deep) {
+				return result == same;
+			}
+			if (!entered.add(new Pair(x, y))) {
+				return true;
+			}
+			Class<?> type = x.getClass();
+			if (structural.get(type)) {
+				return type == y.getClass()
+						&& ((BeanComparison<Object>) cache.get(type)).equals(x,
+								y, this);
+			}
+			if (x instanceof Object[]) {
+				if (!(y instanceof Object[])) {
+					return false;
+				}
+				Object[] xs = (Object[]) x;
+				Object[] ys = (Object[]) y;
+				if (xs.length != ys.length) {
+					return false;
+				}
+				for (int i = 0; i < xs.length; i++) {
+					push(xs[i], ys[i]);
+				}
+				return true;
+			}
+			if (x instanceof List) {
+				if (!(y instanceof List)) {
+					return false;
+				}
+				List<?> xs = (List<?>) x;
+				List<?> ys = (List<?>) y;
+				if (xs.size() != ys.size()) {
+					return false;
+				}
+				Iterator<?> i = xs.iterator();
+				Iterator<?> j = ys.iterator();
+				while (i.hasNext() && j.hasNext()) {
+					push(i.next(), j.next());
+				}
+				return !i.hasNext() && !j.hasNext();
+			}
+			if (!(y instanceof Map)) {
+				return false;
+			}
+			Map<?, ?> xs = (Map<?, ?>) x;
+			Map<?, ?> ys = (Map<?, ?>) y;
+			if (xs.size() != ys.size()) {
+				return false;
+			}
+			for (Map.Entry<?, ?> entry : xs.entrySet()) {
+				Object value = ys.get(entry.getKey());
+				if (value == null && !ys.containsKey(entry.getKey())) {
+					return false;
+				}
+				push(entry.getValue(), value);
+			}
+			return true;
+		}
+
+	}
+
+	private static final class Pair {
+
+		private final Object a;
+		private final Object b;
+
+		Pair(Object a, Object b) {
+			this.a = a;
+			this.b = b;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Pair)) {
+				return false;
+			}
+			Pair other = (Pair) obj;
+			return a == other.a && b == other.b;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(a) * 31
+					+ System.identityHashCode(b);
+		}
+
+	}
+
+}
\ No newline at end of file
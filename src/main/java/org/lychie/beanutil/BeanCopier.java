@@ -0,0 +1,597 @@
+package org.lychie.beanutil;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.ListIterator;
+import java.lang.reflect.Array;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Bean 复制器。为一对(源类, 目标类)预先编排复制计划并缓存, 复制时不再按名称查找属性。<br>
+ * 名称相同且类型兼容的属性会被复制: 基本类型要求类型相同, 按基本类型直接读写不装箱;
+ * 引用类型要求目标属性的类型可由源属性的类型赋值(含装箱/拆箱, 拆箱时跳过 null)。
+ * 目标类的 final 属性不会被复制
+ * 
+ * @author Lychie Fan
+ */
+public final class BeanCopier<S, T> {
+
+	/**
+	 * 并行复制时每段的默认元素个数上限
+	 */
+	public static final int DEFAULT_THRESHOLD = 1024;
+
+	private static final int REFERENCE = 0;
+	private static final int UNBOXING = 1;
+	private static final int BOOLEAN = 2;
+	private static final int BYTE = 3;
+	private static final int CHAR = 4;
+	private static final int SHORT = 5;
+	private static final int INT = 6;
+	private static final int LONG = 7;
+	private static final int FLOAT = 8;
+	private static final int DOUBLE = 9;
+
+	/* 以源类为键, 目标类到复制器的映射为值 */
+	private static final ClassValue<ConcurrentMap<Class<?>, BeanCopier<?, ?>>> cache = new ClassValue<ConcurrentMap<Class<?>, BeanCopier<?, ?>>>() {
+		@Override
+		protected ConcurrentMap<Class<?>, BeanCopier<?, ?>> computeValue(
+				Class<?> type) {
+			return new ConcurrentHashMap<Class<?>, BeanCopier<?, ?>>();
+		}
+	};
+
+	private final Class<S> sourceClass;
+	private final Class<T> targetClass;
+	private final ClassWrapper sourceWrapper;
+	private final ClassWrapper targetWrapper;
+	private final int version;
+	private final PropertyHandle[] readers;
+	private final PropertyHandle[] writers;
+	private final int[] kinds;
+
+	private BeanCopier(Class<S> sourceClass, Class<T> targetClass) {
+		this.sourceClass = sourceClass;
+		this.targetClass = targetClass;
+		/* 先取版本号再包装, 期间发生的清除会使复制器在下次获取时重建 */
+		this.version = ClassWrapper.generation();
+		this.sourceWrapper = ClassWrapper.wrap(sourceClass);
+		this.targetWrapper = ClassWrapper.wrap(targetClass);
+		List<PropertyHandle> readerList = new ArrayList<PropertyHandle>();
+		List<PropertyHandle> writerList = new ArrayList<PropertyHandle>();
+		List<Integer> kindList = new ArrayList<Integer>();
+		for (PropertyHandle writer : targetWrapper.getPropertyHandles()) {
+			if (Modifier.isFinal(writer.getField().getModifiers())) {
+				continue;
+			}
+			PropertyHandle reader = sourceWrapper.table.find(writer
+					.getName());
+			if (reader == null) {
+				continue;
+			}
+			int kind = kindOf(reader.getType(), writer.getType());
+			if (kind != -1) {
+				readerList.add(reader);
+				writerList.add(writer);
+				kindList.add(kind);
+			}
+		}
+		int size = kindList.size();
+		this.readers = readerList.toArray(new PropertyHandle[size]);
+		this.writers = writerList.toArray(new PropertyHandle[size]);
+		this.kinds = new int[size];
+		for (int i = 0; i < size; i++) {
+			kinds[i] = kindList.get(i);
+		}
+	}
+
+	/**
+	 * 获取复制器, 同一对类的复制器只创建一次
+	 * 
+	 * @param sourceClass
+	 *            源类
+	 * @param targetClass
+	 *            目标类
+	 * @return BeanCopier
+	 */
+	@SuppressWarnings("unchecked")
+	public static <S, T> BeanCopier<S, T> create(Class<S> sourceClass,
+			Class<T> targetClass) {
+
+		if (sourceClass == null) {
+			throw new NullPointerException(
+					"the argument sourceClass can not be null");
+		}
+		if (targetClass == null) {
+			throw new NullPointerException(
+					"the argument targetClass can not be null");
+		}
+		ConcurrentMap<Class<?>, BeanCopier<?, ?>> copiers = cache
+				.get(sourceClass);
+		BeanCopier<S, T> copier = (BeanCopier<S, T>) copiers.get(targetClass);
+		if (copier == null || copier.isStale()) {
+			copier = new BeanCopier<S, T>(sourceClass, targetClass);
+			copiers.put(targetClass, copier);
+		}
+		return copier;
+	}
+
+	/**
+	 * 将源对象的属性复制到目标对象
+	 * 
+	 * @param source
+	 *            源对象
+	 * @param target
+	 *            目标对象
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public static void copyProperties(Object source, Object target) {
+		BeanCopier copier = create(source.getClass(), target.getClass());
+		copier.copy(source, target);
+	}
+
+	/**
+	 * 创建目标类的实例, 并将源对象的属性复制过去
+	 * 
+	 * @param source
+	 *            源对象
+	 * @param targetClass
+	 *            目标类
+	 * @return
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public static <E> E copyProperties(Object source, Class<E> targetClass) {
+		BeanCopier copier = create(source.getClass(), targetClass);
+		return (E) copier.copy(source);
+	}
+
+	/**
+	 * 批量复制。每个元素创建一个目标类的实例, 同一源类的元素共用一份复制计划
+	 * 
+	 * @param sources
+	 *            源对象列表, 元素为 null 时对应的结果也为 null
+	 * @param targetClass
+	 *            目标类
+	 * @return 与源列表等长的新列表
+	 */
+	public static <E> List<E> copyAll(List<?> sources, Class<E> targetClass) {
+		List<E> targets = new ArrayList<E>(sources.size());
+		BeanCopier<Object, E> copier = null;
+		for (Object source : sources) {
+			if (source == null) {
+				targets.add(null);
+				continue;
+			}
+			copier = copierOf(copier, source.getClass(), targetClass);
+			targets.add(copier.copy(source));
+		}
+		return targets;
+	}
+
+	/**
+	 * 批量复制。每个元素创建一个目标类的实例, 同一源类的元素共用一份复制计划
+	 * 
+	 * @param sources
+	 *            源对象数组, 元素为 null 时对应的结果也为 null
+	 * @param targetClass
+	 *            目标类
+	 * @return 与源数组等长的新数组
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> E[] copyAll(Object[] sources, Class<E> targetClass) {
+		E[] targets = (E[]) Array.newInstance(targetClass, sources.length);
+		BeanCopier<Object, E> copier = null;
+		for (int i = 0; i < sources.length; i++) {
+			Object source = sources[i];
+			if (source != null) {
+				copier = copierOf(copier, source.getClass(), targetClass);
+				targets[i] = copier.copy(source);
+			}
+		}
+		return targets;
+	}
+
+	/**
+	 * 批量复制, 每个元素创建一个目标类的实例
+	 * 
+	 * @param sources
+	 *            源对象列表, 元素为 null 时对应的结果也为 null
+	 * @return 与源列表等长的新列表
+	 */
+	public List<T> copyAll(List<? extends S> sources) {
+		return copyAll(sources, new ArrayList<T>(sources.size()));
+	}
+
+	/**
+	 * 批量复制, 复用调用方提供的目标对象。第 i 个源对象复制到 targets 的第 i 个元素,
+	 * targets 中不足的部分(或为 null 的元素)才创建新的实例
+	 * 
+	 * @param sources
+	 *            源对象列表, 元素为 null 时对应的结果也为 null
+	 * @param targets
+	 *            可复用的目标对象列表, 复制的结果也写回该列表
+	 * @return targets
+	 */
+	public List<T> copyAll(List<? extends S> sources, List<T> targets) {
+		if (targets instanceof ArrayList) {
+			((ArrayList<T>) targets).ensureCapacity(sources.size());
+		}
+		/* 按迭代器顺序读写, LinkedList 等链式列表也只遍历一次 */
+		ListIterator<T> iterator = targets.listIterator();
+		for (S source : sources) {
+			boolean reusable = iterator.hasNext();
+			T target = reusable ? iterator.next() : null;
+			if (source == null) {
+				target = null;
+			} else {
+				if (target == null) {
+					target = targetWrapper.newInstance();
+				}
+				copy(source, target);
+			}
+			if (reusable) {
+				iterator.set(target);
+			} else {
+				iterator.add(target);
+			}
+		}
+		return targets;
+	}
+
+	/**
+	 * 批量复制, 复用调用方提供的目标对象。targets 中为 null 的元素才创建新的实例
+	 * 
+	 * @param sources
+	 *            源对象数组, 元素为 null 时对应的结果也为 null
+	 * @param targets
+	 *            可复用的目标对象数组, 长度不能小于 sources
+	 * @return targets
+	 */
+	public T[] copyAll(S[] sources, T[] targets) {
+		if (targets.length < sources.length) {
+			throw new IllegalArgumentException(
+					"the targets array is shorter than the sources array");
+		}
+		for (int i = 0; i < sources.length; i++) {
+			S source = sources[i];
+			if (source == null) {
+				targets[i] = null;
+				continue;
+			}
+			T target = targets[i];
+			if (target == null) {
+				targets[i] = target = targetWrapper.newInstance();
+			}
+			copy(source, target);
+		}
+		return targets;
+	}
+
+	/**
+	 * 并行批量复制, 使用公共的 ForkJoinPool, 每段至多 {@value #DEFAULT_THRESHOLD} 个元素
+	 * 
+	 * @param sources
+	 *            源对象列表, 元素为 null 时对应的结果也为 null
+	 * @return 与源列表等长且顺序一致的新列表
+	 */
+	public List<T> parallelCopyAll(List<? extends S> sources) {
+		return parallelCopyAll(sources, ForkJoinPool.commonPool(),
+				DEFAULT_THRESHOLD);
+	}
+
+	/**
+	 * 并行批量复制。executor 为 ForkJoinPool 时按二分递归拆分任务; 否则按 threshold
+	 * 切段后逐段提交(如 Java 21 的虚拟线程执行器), 并等待全部完成
+	 * 
+	 * @param sources
+	 *            源对象列表, 元素为 null 时对应的结果也为 null
+	 * @param executor
+	 *            执行器
+	 * @param threshold
+	 *            每段的元素个数上限, 元素个数不超过该值时直接在当前线程复制
+	 * @return 与源列表等长且顺序一致的新列表
+	 */
+	public List<T> parallelCopyAll(List<? extends S> sources,
+			Executor executor, int threshold) {
+
+		if (threshold < 1) {
+			throw new IllegalArgumentException("the threshold must be positive");
+		}
+		Object[] from = sources.toArray();
+		Object[] to = new Object[from.length];
+		if (from.length <= threshold) {
+			copyRange(from, to, 0, from.length);
+		} else if (executor instanceof ForkJoinPool) {
+			((ForkJoinPool) executor).invoke(new CopyTask(from, to, 0,
+					from.length, threshold));
+		} else {
+			copyChunks(from, to, executor, threshold);
+		}
+		List<T> targets = new ArrayList<T>(to.length);
+		for (Object target : to) {
+			targets.add(targetClass.cast(target));
+		}
+		return targets;
+	}
+
+	/**
+	 * 将源对象的属性复制到目标对象
+	 * 
+	 * @param source
+	 *            源对象
+	 * @param target
+	 *            目标对象
+	 */
+	public void copy(S source, T target) {
+		if (source == null) {
+			throw new NullPointerException(
+					"the argument source can not be null");
+		}
+		if (target == null) {
+			throw new NullPointerException(
+					"the argument target can not be null");
+		}
+		PropertyHandle[] readers = this.readers;
+		PropertyHandle[] writers = this.writers;
+		int[] kinds = this.kinds;
+		for (int i = 0; i < kinds.length; i++) {
+			PropertyHandle reader = readers[i];
+			PropertyHandle writer = writers[i];
+			switch (kinds[i]) {
+			case BOOLEAN:
+				writer.setBoolean(target, reader.getBoolean(source));
+				break;
+			case BYTE:
+				writer.setByte(target, reader.getByte(source));
+				break;
+			case CHAR:
+				writer.setChar(target, reader.getChar(source));
+				break;
+			case SHORT:
+				writer.setShort(target, reader.getShort(source));
+				break;
+			case INT:
+				writer.setInt(target, reader.getInt(source));
+				break;
+			case LONG:
+				writer.setLong(target, reader.getLong(source));
+				break;
+			case FLOAT:
+				writer.setFloat(target, reader.getFloat(source));
+				break;
+			case DOUBLE:
+				writer.setDouble(target, reader.getDouble(source));
+				break;
+			case UNBOXING:
+				Object value = reader.get(source);
+				if (value != null) {
+					writer.set(target, value);
+				}
+				break;
+			default:
+				writer.set(target, reader.get(source));
+			}
+		}
+	}
+
+	/**
+	 * 创建目标类的实例, 并将源对象的属性复制过去
+	 * 
+	 * @param source
+	 *            源对象
+	 * @return
+	 */
+	public T copy(S source) {
+		T target = targetWrapper.newInstance();
+		copy(source, target);
+		return target;
+	}
+
+	/**
+	 * 获取源类
+	 * 
+	 * @return
+	 */
+	public Class<S> getSourceClass() {
+		return sourceClass;
+	}
+
+	/**
+	 * 获取目标类
+	 * 
+	 * @return
+	 */
+	public Class<T> getTargetClass() {
+		return targetClass;
+	}
+
+	/**
+	 * 获取会被复制的属性名称
+	 * 
+	 * @return
+	 */
+	public List<String> getPropertyNames() {
+		List<String> names = new ArrayList<String>(writers.length);
+		for (PropertyHandle writer : writers) {
+			names.add(writer.getName());
+		}
+		return names;
+	}
+
+	/**
+	 * 复制 [start, end) 区间的元素
+	 */
+	@SuppressWarnings("unchecked")
+	private void copyRange(Object[] from, Object[] to, int start, int end) {
+		for (int i = start; i < end; i++) {
+			S source = (S) from[i];
+			if (source != null) {
+				to[i] = copy(source);
+			}
+		}
+	}
+
+	/**
+	 * 按 threshold 切段提交到执行器, 等待全部完成, 任一段失败则抛出其异常
+	 */
+	private void copyChunks(final Object[] from, final Object[] to,
+			Executor executor, int threshold) {
+
+		int chunks = (from.length + threshold - 1) / threshold;
+		final CountDownLatch latch = new CountDownLatch(chunks);
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		for (int start = 0; start < from.length; start += threshold) {
+			final int begin = start;
+			final int end = Math.min(start + threshold, from.length);
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						if (failure.get() == null) {
+							copyRange(from, to, begin, end);
+						}
+					} catch (Throwable e) {
+						failure.compareAndSet(null, e);
+					} finally {
+						latch.countDown();
+					}
+				}
+			});
+		}
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw BeanMetrics.abnormal(e);
+		}
+		Throwable e = failure.get();
+		if (e instanceof RuntimeException) {
+			throw (RuntimeException) e;
+		}
+		if (e instanceof Error) {
+			throw (Error) e;
+		}
+		if (e != null) {
+			throw BeanMetrics.abnormal(e);
+		}
+	}
+
+	/**
+	 * 二分拆分的复制任务
+	 */
+	private class CopyTask extends RecursiveAction {
+
+		private static final long serialVersionUID = -2217935387536520917L;
+
+		private final Object[] from;
+		private final Object[] to;
+		private final int start;
+		private final int end;
+		private final int threshold;
+
+		CopyTask(Object[] from, Object[] to, int start, int end, int threshold) {
+			this.from = from;
+			this.to = to;
+			this.start = start;
+			this.end = end;
+			this.threshold = threshold;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - start <= threshold) {
+				copyRange(from, to, start, end);
+				return;
+			}
+			int middle = (start + end) >>> 1;
+			invokeAll(new CopyTask(from, to, start, middle, threshold),
+					new CopyTask(from, to, middle, end, threshold));
+		}
+
+	}
+
+	/**
+	 * 批量复制时复用上一个元素的复制器, 源类变化时才重新获取
+	 * 
+	 * @param last
+	 *            上一个元素的复制器
+	 * @param sourceClass
+	 *            当前元素的类
+	 * @param targetClass
+	 *            目标类
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	private static <E> BeanCopier<Object, E> copierOf(
+			BeanCopier<Object, E> last, Class<?> sourceClass,
+			Class<E> targetClass) {
+
+		if (last != null && last.sourceClass == sourceClass) {
+			return last;
+		}
+		return (BeanCopier<Object, E>) create(sourceClass, targetClass);
+	}
+
+	/**
+	 * 包装器缓存被清除后, 复制计划需要重新编排
+	 * 
+	 * @return
+	 */
+	private boolean isStale() {
+		return version != ClassWrapper.generation();
+	}
+
+	/**
+	 * 属性的复制方式
+	 * 
+	 * @param sourceType
+	 *            源属性类型
+	 * @param targetType
+	 *            目标属性类型
+	 * @return 类型不兼容时返回 -1
+	 */
+	private static int kindOf(Class<?> sourceType, Class<?> targetType) {
+		if (targetType.isPrimitive()) {
+			if (sourceType == targetType) {
+				return primitiveKindOf(targetType);
+			}
+			Class<?> wrapper = BeanClass.getWrapperClass(targetType);
+			return sourceType == wrapper ? UNBOXING : -1;
+		}
+		Class<?> type = BeanClass.getWrapperClass(sourceType);
+		return targetType.isAssignableFrom(type) ? REFERENCE : -1;
+	}
+
+	private static int primitiveKindOf(Class<?> type) {
+		if (type == boolean.class) {
+			return BOOLEAN;
+		}
+		if (type == byte.class) {
+			return BYTE;
+		}
+		if (type == char.class) {
+			return CHAR;
+		}
+		if (type == short.class) {
+			return SHORT;
+		}
+		if (type == int.class) {
+			return INT;
+		}
+		if (type == long.class) {
+			return LONG;
+		}
+		if (type == float.class) {
+			return FLOAT;
+		}
+		return DOUBLE;
+	}
+
+}
\ No newline at end of file
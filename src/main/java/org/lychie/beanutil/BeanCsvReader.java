@@ -0,0 +1,429 @@
+package org.lychie.beanutil;
+
+import java.util.List;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Collections;
+import java.lang.reflect.Array;
+import java.nio.charset.Charset;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.ReadableByteChannel;
+import org.lychie.beanutil.exception.BeanException;
+
+/**
+ * 从 CSV/TSV 流式读取 Bean。<br>
+ * 第一行为表头, 列在读取表头时一次性绑定到属性句柄与 {@link Converters} 的转换器,
+ * 之后逐个字符解析并直接写入属性, 不产生中间的 String[] 行, 也不按名称查找属性;
+ * int、long 列直接从字符解析, 不创建 String。字节与字符缓冲区重复使用,
+ * 启用 {@link #setReuseBean(boolean)} 后只使用一个目标对象, 内存占用与文件大小无关。<br>
+ * 支持 RFC 4180 的引号转义与引号内换行, 行尾可以是 \n 或 \r\n, 空行被跳过, 开头的 BOM 被跳过。
+ * 表头中的列必须都是类的属性; 空单元格对引用类型的属性写入 null, 对基本类型的属性写入默认值。<br>
+ * 通道须为阻塞模式
+ * 
+ * @author Lychie Fan
+ */
+public final class BeanCsvReader<E> implements Closeable {
+
+	private static final int bufferSize = 64 * 1024;
+	private static final char quote = '"';
+
+	private final ReadableByteChannel channel;
+	private final ClassWrapper wrapper;
+	private final char delimiter;
+	private final CharsetDecoder decoder;
+	private final ByteBuffer bytes = ByteBuffer.allocate(bufferSize);
+	private final CharBuffer chars = CharBuffer.allocate(bufferSize);
+	private final List<String> header;
+	private final Column[] columns;
+	private char[] cell = new char[256];
+	private int cellLength;
+	private boolean eof;
+	private boolean flushed;
+	private long record;
+	private boolean reuseBean;
+	private E target;
+
+	/**
+	 * 以逗号分隔、UTF-8 编码读取
+	 * 
+	 * @param channel
+	 *            通道
+	 * @param beanClass
+	 *            类, 须有无参构造方法
+	 * @throws IOException
+	 */
+	public BeanCsvReader(ReadableByteChannel channel, Class<E> beanClass)
+			throws IOException {
+
+		this(channel, beanClass, ',', StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * 读取并绑定表头
+	 * 
+	 * @param channel
+	 *            通道
+	 * @param beanClass
+	 *            类, 须有无参构造方法
+	 * @param delimiter
+	 *            分隔符, TSV 为 '\t'
+	 * @param charset
+	 *            字符集
+	 * @throws IOException
+	 * @throws BeanException
+	 *             表头的列不是类的属性, 或属性的类型不能由字符串转换得到
+	 */
+	public BeanCsvReader(ReadableByteChannel channel, Class<E> beanClass,
+			char delimiter, Charset charset) throws IOException {
+
+		if (channel == null) {
+			throw new NullPointerException(
+					"the argument channel can not be null");
+		}
+		if (channel instanceof SelectableChannel
+				&& !((SelectableChannel) channel).isBlocking()) {
+			throw new IllegalArgumentException(
+					"the argument channel must be in blocking mode");
+		}
+		this.channel = channel;
+		this.wrapper = ClassWrapper.wrap(beanClass);
+		this.delimiter = delimiter;
+		this.decoder = charset.newDecoder();
+		chars.flip();
+		if (peek() == '\uFEFF') {
+			read0();
+		}
+		List<String> names = new ArrayList<String>();
+		parseRecord(null, names);
+		this.header = Collections.unmodifiableList(names);
+		this.columns = new Column[names.size()];
+		for (int i = 0; i < columns.length; i++) {
+			columns[i] = new Column(wrapper.property(names.get(i)));
+		}
+	}
+
+	/**
+	 * 获取表头的列名
+	 * 
+	 * @return 不可修改的 List
+	 */
+	public List<String> getHeader() {
+		return header;
+	}
+
+	/**
+	 * 设置 {@link #read()} 是否每次返回同一个对象。启用后调用方须在下一次读取前用完对象
+	 * 
+	 * @param reuseBean
+	 *            是否重复使用目标对象
+	 */
+	public void setReuseBean(boolean reuseBean) {
+		this.reuseBean = reuseBean;
+	}
+
+	/**
+	 * 获取已读取的记录数, 不含表头
+	 * 
+	 * @return
+	 */
+	public long getRecordCount() {
+		return record;
+	}
+
+	/**
+	 * 读取下一条记录
+	 * 
+	 * @return 没有更多记录时返回 null
+	 * @throws IOException
+	 */
+	@SuppressWarnings("unchecked")
+	public E read() throws IOException {
+		E bean = reuseBean ? target : null;
+		if (bean == null) {
+			bean = (E) wrapper.newInstance();
+		}
+		if (!read(bean)) {
+			return null;
+		}
+		if (reuseBean) {
+			target = bean;
+		}
+		return bean;
+	}
+
+	/**
+	 * 将下一条记录读入已有的对象
+	 * 
+	 * @param bean
+	 *            对象
+	 * @return 没有更多记录时返回 false
+	 * @throws IOException
+	 */
+	public boolean read(E bean) throws IOException {
+		if (bean == null) {
+			throw new NullPointerException("the argument bean can not be null");
+		}
+		return parseRecord(bean, null);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * 解析一条记录。names 不为 null 时解析的是表头
+	 * 
+	 * @return 没有更多记录时返回 false
+	 */
+	private boolean parseRecord(Object bean, List<String> names)
+			throws IOException {
+
+		int c = read0();
+		while (c == '\n' || c == '\r') {
+			c = read0();
+		}
+		if (c == -1) {
+			return false;
+		}
+		if (names == null) {
+			record++;
+		}
+		int column = 0;
+		while (true) {
+			cellLength = 0;
+			boolean quoted = c == quote;
+			if (quoted) {
+				while (true) {
+					c = read0();
+					if (c == -1) {
+						throw error("unterminated quoted cell", column);
+					}
+					if (c == quote) {
+						c = read0();
+						if (c != quote) {
+							break;
+						}
+					}
+					append((char) c);
+				}
+			} else {
+				while (c != delimiter && c != '\n' && c != '\r' && c != -1) {
+					append((char) c);
+					c = read0();
+				}
+			}
+			if (names != null) {
+				names.add(new String(cell, 0, cellLength));
+			} else if (column < columns.length) {
+				bind(bean, column, quoted);
+			}
+			column++;
+			if (c == delimiter) {
+				c = read0();
+			} else if (c == '\r') {
+				if (peek() == '\n') {
+					read0();
+				}
+				break;
+			} else if (c == '\n' || c == -1) {
+				break;
+			} else {
+				throw error("unexpected character '" + (char) c
+						+ "' after quoted cell", column - 1);
+			}
+		}
+		if (names == null) {
+			cellLength = 0;
+			for (; column < columns.length; column++) {
+				bind(bean, column, false);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 将当前单元格写入属性
+	 */
+	private void bind(Object bean, int index, boolean quoted) {
+		try {
+			columns[index].set(bean, cell, cellLength, quoted);
+		} catch (RuntimeException e) {
+			throw error(e.getMessage(), index);
+		}
+	}
+
+	private BeanException error(String message, int column) {
+		String name = column < header().size() ? header().get(column) : "#"
+				+ (column + 1);
+		return new BeanException("record " + record + ", column " + name
+				+ ": " + message);
+	}
+
+	private List<String> header() {
+		return header == null ? Collections.<String> emptyList() : header;
+	}
+
+	private void append(char c) {
+		if (cellLength == cell.length) {
+			char[] grown = new char[cellLength * 2];
+			System.arraycopy(cell, 0, grown, 0, cellLength);
+			cell = grown;
+		}
+		cell[cellLength++] = c;
+	}
+
+	private int read0() throws IOException {
+		if (!chars.hasRemaining() && !fill()) {
+			return -1;
+		}
+		return chars.get();
+	}
+
+	private int peek() throws IOException {
+		if (!chars.hasRemaining() && !fill()) {
+			return -1;
+		}
+		return chars.get(chars.position());
+	}
+
+	/**
+	 * 解码下一批字符
+	 * 
+	 * @return 没有更多字符时返回 false
+	 */
+	private boolean fill() throws IOException {
+		chars.clear();
+		while (chars.position() == 0 && !flushed) {
+			int count = eof ? 0 : channel.read(bytes);
+			if (count < 0) {
+				eof = true;
+			}
+			bytes.flip();
+			CoderResult result = decoder.decode(bytes, chars, eof);
+			bytes.compact();
+			if (result.isError()) {
+				result.throwException();
+			}
+			/* 阻塞的通道至少读到一个字节, 读不到数据说明通道被切换为非阻塞模式 */
+			if (count == 0 && !eof && chars.position() == 0) {
+				throw new IOException("no data available from the channel, "
+						+ "non-blocking channels are not supported");
+			}
+			if (eof && result.isUnderflow()) {
+				decoder.flush(chars);
+				flushed = true;
+			}
+		}
+		chars.flip();
+		return chars.hasRemaining();
+	}
+
+	/**
+	 * 绑定到属性的列
+	 */
+	private static final class Column {
+
+		private static final int stringKind = 0;
+		private static final int intKind = 1;
+		private static final int longKind = 2;
+		private static final int otherKind = 3;
+
+		private final PropertyHandle handle;
+		private final Converter<Object, ?> converter;
+		private final Object empty;
+		private final int kind;
+
+		Column(PropertyHandle handle) {
+			Class<?> type = handle.getType();
+			this.handle = handle;
+			this.converter = Converters.lookup(String.class, type);
+			if (converter == null) {
+				throw new BeanException("no converter from String to "
+						+ type.getName() + " for the property "
+						+ handle.getName());
+			}
+			this.empty = type.isPrimitive() ? Array.get(
+					Array.newInstance(type, 1), 0) : null;
+			if (type == String.class) {
+				kind = stringKind;
+			} else if (type == int.class) {
+				kind = intKind;
+			} else if (type == long.class) {
+				kind = longKind;
+			} else {
+				kind = otherKind;
+			}
+		}
+
+		void set(Object bean, char[] cell, int length, boolean quoted) {
+			if (length == 0 && (!quoted || kind != stringKind)) {
+				handle.set(bean, empty);
+				return;
+			}
+			switch (kind) {
+			case stringKind:
+				handle.set(bean, new String(cell, 0, length));
+				return;
+			case intKind:
+				if (isPlainNumber(cell, length, 9)) {
+					handle.setInt(bean, (int) parse(cell, length));
+					return;
+				}
+				break;
+			case longKind:
+				if (isPlainNumber(cell, length, 18)) {
+					handle.setLong(bean, parse(cell, length));
+					return;
+				}
+				break;
+			}
+			String text = new String(cell, 0, length);
+			Object value;
+			try {
+				value = converter.convert(text);
+			} catch (BeanException e) {
+				throw e;
+			} catch (RuntimeException e) {
+				throw new BeanException("can not convert " + text + " to "
+						+ handle.getType().getName() + ": " + e.getMessage());
+			}
+			handle.set(bean, value);
+		}
+
+		/**
+		 * 是否为可以直接解析且不会溢出的整数: 可选的负号与不超过 maxDigits 位数字
+		 */
+		private static boolean isPlainNumber(char[] cell, int length,
+				int maxDigits) {
+
+			int start = cell[0] == '-' ? 1 : 0;
+			if (length == start || length - start > maxDigits) {
+				return false;
+			}
+			for (int i = start; i < length; i++) {
+				if (cell[i] < '0' || cell[i] > '9') {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private static long parse(char[] cell, int length) {
+			boolean negative = cell[0] == '-';
+			long value = 0;
+			for (int i = negative ? 1 : 0; i < length; i++) {
+				value = value * 10 + (cell[i] - '0');
+			}
+			return negative ? -value : value;
+		}
+
+	}
+
+}
\ No newline at end of file
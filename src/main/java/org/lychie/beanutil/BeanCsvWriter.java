@@ -0,0 +1,283 @@
+package org.lychie.beanutil;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.WritableByteChannel;
+import org.lychie.beanutil.exception.BeanException;
+
+/**
+ * 将 Bean 流式写出为 CSV/TSV。<br>
+ * 列在创建时一次性绑定到属性句柄与 {@link Converters} 的转换器, 第一行写出表头;
+ * int、long 属性不装箱、不创建 String, 直接写出数字。字符与字节缓冲区重复使用,
+ * 缓冲区满时写入通道, 内存占用与写出的记录数无关。<br>
+ * 含分隔符、引号或换行的值按 RFC 4180 加引号, null 写出为空单元格, 空字符串写出为 "";
+ * 只接受 {@link BeanCsvReader} 能够读回的属性类型
+ * 
+ * @author Lychie Fan
+ */
+public final class BeanCsvWriter<E> implements Closeable, Flushable {
+
+	private static final int bufferSize = 64 * 1024;
+	private static final char quote = '"';
+
+	private final WritableByteChannel channel;
+	private final char delimiter;
+	private final CharsetEncoder encoder;
+	private final CharBuffer chars = CharBuffer.allocate(bufferSize);
+	private final ByteBuffer bytes = ByteBuffer.allocate(bufferSize);
+	private final char[] digits = new char[20];
+	private final Column[] columns;
+	private long record;
+
+	/**
+	 * 以逗号分隔、UTF-8 编码写出类的全部属性
+	 * 
+	 * @param channel
+	 *            通道
+	 * @param beanClass
+	 *            类
+	 */
+	public BeanCsvWriter(WritableByteChannel channel, Class<E> beanClass) {
+		this(channel, beanClass, ',', StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * 按属性名称写出指定的列
+	 * 
+	 * @param channel
+	 *            通道
+	 * @param beanClass
+	 *            类
+	 * @param delimiter
+	 *            分隔符, TSV 为 '\t'
+	 * @param charset
+	 *            字符集
+	 * @param propertyNames
+	 *            列对应的属性名称, 为空时写出类的全部属性
+	 * @throws BeanException
+	 *             属性的类型不能由字符串转换得到
+	 */
+	public BeanCsvWriter(WritableByteChannel channel, Class<E> beanClass,
+			char delimiter, Charset charset, String... propertyNames) {
+
+		if (channel == null) {
+			throw new NullPointerException(
+					"the argument channel can not be null");
+		}
+		this.channel = channel;
+		this.delimiter = delimiter;
+		this.encoder = charset.newEncoder();
+		ClassWrapper wrapper = ClassWrapper.wrap(beanClass);
+		PropertyHandle[] handles;
+		if (propertyNames == null || propertyNames.length == 0) {
+			handles = wrapper.table.all();
+		} else {
+			handles = new PropertyHandle[propertyNames.length];
+			for (int i = 0; i < handles.length; i++) {
+				handles[i] = wrapper.property(propertyNames[i]);
+			}
+		}
+		this.columns = new Column[handles.length];
+		for (int i = 0; i < columns.length; i++) {
+			columns[i] = new Column(handles[i]);
+		}
+		try {
+			for (int i = 0; i < columns.length; i++) {
+				if (i > 0) {
+					put(delimiter);
+				}
+				putText(columns[i].handle.getName());
+			}
+			put('\n');
+		} catch (IOException e) {
+			/* 表头不超过缓冲区时不会写入通道 */
+			throw new BeanException("can not write the header: "
+					+ e.getMessage());
+		}
+	}
+
+	/**
+	 * 写出一条记录
+	 * 
+	 * @param bean
+	 *            对象
+	 * @throws IOException
+	 */
+	public void write(E bean) throws IOException {
+		if (bean == null) {
+			throw new NullPointerException("the argument bean can not be null");
+		}
+		for (int i = 0; i < columns.length; i++) {
+			if (i > 0) {
+				put(delimiter);
+			}
+			Column column = columns[i];
+			switch (column.kind) {
+			case Column.intKind:
+				putLong(column.handle.getInt(bean));
+				break;
+			case Column.longKind:
+				putLong(column.handle.getLong(bean));
+				break;
+			default:
+				Object value = column.handle.get(bean);
+				if (value != null) {
+					putText(value instanceof String ? (String) value
+							: column.converter.convert(value));
+				}
+			}
+		}
+		put('\n');
+		record++;
+	}
+
+	/**
+	 * 获取已写出的记录数, 不含表头
+	 * 
+	 * @return
+	 */
+	public long getRecordCount() {
+		return record;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		drain(false);
+		writeBytes();
+	}
+
+	/**
+	 * 写出缓冲区中剩余的内容并关闭通道
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			drain(true);
+			while (encoder.flush(bytes).isOverflow()) {
+				writeBytes();
+			}
+			writeBytes();
+		} finally {
+			channel.close();
+		}
+	}
+
+	private void put(char c) throws IOException {
+		if (!chars.hasRemaining()) {
+			drain(false);
+		}
+		chars.put(c);
+	}
+
+	private void putText(String text) throws IOException {
+		int length = text.length();
+		/* 空字符串加引号, 以便读取时与 null(空单元格)区分 */
+		boolean quoted = length == 0;
+		for (int i = 0; i < length && !quoted; i++) {
+			char c = text.charAt(i);
+			quoted = c == delimiter || c == quote || c == '\n' || c == '\r';
+		}
+		if (!quoted) {
+			for (int i = 0; i < length; i++) {
+				put(text.charAt(i));
+			}
+			return;
+		}
+		put(quote);
+		for (int i = 0; i < length; i++) {
+			char c = text.charAt(i);
+			if (c == quote) {
+				put(quote);
+			}
+			put(c);
+		}
+		put(quote);
+	}
+
+	private void putLong(long value) throws IOException {
+		if (value == Long.MIN_VALUE) {
+			putText(Long.toString(value));
+			return;
+		}
+		if (value < 0) {
+			put('-');
+			value = -value;
+		}
+		int position = digits.length;
+		do {
+			digits[--position] = (char) ('0' + value % 10);
+			value /= 10;
+		} while (value != 0);
+		for (; position < digits.length; position++) {
+			put(digits[position]);
+		}
+	}
+
+	/**
+	 * 将字符缓冲区编码到字节缓冲区, 字节缓冲区满时写入通道
+	 */
+	private void drain(boolean endOfInput) throws IOException {
+		chars.flip();
+		while (true) {
+			CoderResult result = encoder.encode(chars, bytes, endOfInput);
+			if (result.isError()) {
+				result.throwException();
+			}
+			if (!result.isOverflow()) {
+				break;
+			}
+			writeBytes();
+		}
+		chars.compact();
+	}
+
+	private void writeBytes() throws IOException {
+		bytes.flip();
+		while (bytes.hasRemaining()) {
+			channel.write(bytes);
+		}
+		bytes.clear();
+	}
+
+	/**
+	 * 绑定到属性的列
+	 */
+	private static final class Column {
+
+		static final int intKind = 1;
+		static final int longKind = 2;
+		static final int otherKind = 3;
+
+		final PropertyHandle handle;
+		final Converter<Object, String> converter;
+		final int kind;
+
+		Column(PropertyHandle handle) {
+			Class<?> type = handle.getType();
+			this.handle = handle;
+			this.converter = Converters.lookup(type, String.class);
+			/* 与 BeanCsvReader 一致, 写出的列须能被读回 */
+			if (Converters.lookup(String.class, type) == null) {
+				throw new BeanException("no converter from String to "
+						+ type.getName() + " for the property "
+						+ handle.getName());
+			}
+			if (type == int.class) {
+				kind = intKind;
+			} else if (type == long.class) {
+				kind = longKind;
+			} else {
+				kind = otherKind;
+			}
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,228 @@
+package org.lychie.beanutil;
+
+import java.util.Map;
+import java.util.List;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.nio.ByteBuffer;
+import java.lang.reflect.Modifier;
+import org.lychie.beanutil.exception.BeanException;
+
+/**
+ * Bean 的定长二进制布局。<br>
+ * 依据 {@link ClassWrapper} 的属性表, 将对象编码为 {@link ByteBuffer} 中固定长度、固定偏移的记录,
+ * 缓冲区可以在堆内或堆外(direct), 字节序由缓冲区决定。属性按宽度从大到小排列以保持自然对齐,
+ * 记录长度按 8 字节对齐; 包装类型的属性在记录末尾的位图中标记是否为 null, 枚举记录序号加一(null 为 0), 全零的记录还原为默认值与 null。<br>
+ * 支持基本类型、包装类型与枚举, transient 属性被忽略, 其它类型的属性无法定长编码, 创建布局时抛出异常。
+ * 通过 {@link #field(String)} 可以直接读取单个属性, 不必还原出整个对象
+ * 
+ * @author Lychie Fan
+ */
+public final class BeanLayout<E> {
+
+	private static final ClassValue<BeanLayout<?>> cache = new ClassValue<BeanLayout<?>>() {
+		@Override
+		@SuppressWarnings({ "rawtypes", "unchecked" })
+		protected BeanLayout<?> computeValue(Class<?> type) {
+			return new BeanLayout(type);
+		}
+	};
+
+	private final Class<E> beanClass;
+	private final ClassWrapper wrapper;
+	private final LayoutField[] fields;
+	private final Map<String, LayoutField> fieldMap;
+	private final int recordSize;
+
+	private BeanLayout(Class<E> beanClass) {
+		ClassWrapper wrapper = ClassWrapper.wrap(beanClass);
+		List<PropertyHandle> handles = new ArrayList<PropertyHandle>();
+		List<Integer> kinds = new ArrayList<Integer>();
+		for (PropertyHandle handle : wrapper.table.all()) {
+			if (Modifier.isTransient(handle.getField().getModifiers())) {
+				continue;
+			}
+			int kind = LayoutField.kindOf(handle.getType());
+			if (kind == -1) {
+				throw new BeanException(handle.getName() + " property of type "
+						+ handle.getType().getName()
+						+ " has no fixed-size layout in the class "
+						+ beanClass.getSimpleName());
+			}
+			handles.add(handle);
+			kinds.add(kind);
+		}
+		int count = handles.size();
+		int offset = 0;
+		int nullable = 0;
+		int[] offsets = new int[count];
+		int[] nullBits = new int[count];
+		/* 按宽度从大到小分配偏移, 每个属性都落在自身宽度的整数倍上 */
+		for (int size = 8; size >= 1; size >>= 1) {
+			for (int i = 0; i < count; i++) {
+				if (LayoutField.sizeOf(kinds.get(i)) == size) {
+					offsets[i] = offset;
+					offset += size;
+				}
+			}
+		}
+		for (int i = 0; i < count; i++) {
+			boolean boxed = !handles.get(i).getType().isPrimitive()
+					&& kinds.get(i) != LayoutField.ENUM;
+			nullBits[i] = boxed ? nullable++ : -1;
+		}
+		int bitmapOffset = offset;
+		offset += (nullable + 7) >> 3;
+		LayoutField[] fields = new LayoutField[count];
+		Map<String, LayoutField> fieldMap = new HashMap<String, LayoutField>(
+				count * 4 / 3 + 1);
+		for (int i = 0; i < count; i++) {
+			fields[i] = new LayoutField(handles.get(i), kinds.get(i),
+					offsets[i], nullBits[i], bitmapOffset);
+			fieldMap.put(fields[i].getName(), fields[i]);
+		}
+		this.beanClass = beanClass;
+		this.wrapper = wrapper;
+		this.fields = fields;
+		this.fieldMap = fieldMap;
+		this.recordSize = Math.max((offset + 7) & ~7, 8);
+	}
+
+	/**
+	 * 获取类的布局, 按类缓存
+	 * 
+	 * @param beanClass
+	 *            类
+	 * @return
+	 * @throws BeanException
+	 *             类中存在无法定长编码的属性
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> BeanLayout<E> of(Class<E> beanClass) {
+		if (beanClass == null) {
+			throw new NullPointerException(
+					"the argument beanClass can not be null");
+		}
+		return (BeanLayout<E>) cache.get(beanClass);
+	}
+
+	/**
+	 * 获取布局对应的类
+	 * 
+	 * @return
+	 */
+	public Class<E> getBeanClass() {
+		return beanClass;
+	}
+
+	/**
+	 * 获取一条记录的字节数
+	 * 
+	 * @return
+	 */
+	public int getRecordSize() {
+		return recordSize;
+	}
+
+	/**
+	 * 获取布局中的全部属性, 按属性表的顺序排列
+	 * 
+	 * @return 不可修改的列表
+	 */
+	public List<LayoutField> getFields() {
+		List<LayoutField> list = new ArrayList<LayoutField>(fields.length);
+		Collections.addAll(list, fields);
+		return Collections.unmodifiableList(list);
+	}
+
+	/**
+	 * 获取布局中的属性, 用于直接读写缓冲区中的单个属性
+	 * 
+	 * @param propertyName
+	 *            属性名称
+	 * @return
+	 */
+	public LayoutField field(String propertyName) {
+		LayoutField field = fieldMap.get(propertyName);
+		if (field == null) {
+			throw new BeanException(propertyName
+					+ " property can not be found in the layout of the class "
+					+ beanClass.getSimpleName());
+		}
+		return field;
+	}
+
+	/**
+	 * 分配可以容纳 count 条记录的缓冲区
+	 * 
+	 * @param count
+	 *            记录数
+	 * @param direct
+	 *            是否分配在堆外
+	 * @return
+	 */
+	public ByteBuffer allocate(int count, boolean direct) {
+		long size = (long) count * recordSize;
+		if (size > Integer.MAX_VALUE) {
+			throw new BeanException(count + " records of "
+					+ beanClass.getSimpleName() + " exceed a single buffer");
+		}
+		return direct ? ByteBuffer.allocateDirect((int) size) : ByteBuffer
+				.allocate((int) size);
+	}
+
+	/**
+	 * 将对象写入缓冲区
+	 * 
+	 * @param bean
+	 *            对象
+	 * @param buffer
+	 *            缓冲区
+	 * @param record
+	 *            记录在缓冲区中的起始位置
+	 */
+	public void write(E bean, ByteBuffer buffer, int record) {
+		for (LayoutField field : fields) {
+			field.write(bean, buffer, record);
+		}
+	}
+
+	/**
+	 * 从缓冲区还原对象, 类须有无参构造方法
+	 * 
+	 * @param buffer
+	 *            缓冲区
+	 * @param record
+	 *            记录在缓冲区中的起始位置
+	 * @return
+	 */
+	public E read(ByteBuffer buffer, int record) {
+		E bean = wrapper.newInstance();
+		read(buffer, record, bean);
+		return bean;
+	}
+
+	/**
+	 * 将缓冲区中的记录写回已有的对象
+	 * 
+	 * @param buffer
+	 *            缓冲区
+	 * @param record
+	 *            记录在缓冲区中的起始位置
+	 * @param bean
+	 *            对象
+	 */
+	public void read(ByteBuffer buffer, int record, E bean) {
+		for (LayoutField field : fields) {
+			field.read(buffer, record, bean);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return beanClass.getSimpleName() + "[" + recordSize + " bytes] "
+				+ getFields();
+	}
+
+}
\ No newline at end of file
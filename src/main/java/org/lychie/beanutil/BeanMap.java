@@ -0,0 +1,189 @@
+package org.lychie.beanutil;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.Iterator;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.LinkedHashMap;
+import java.util.NoSuchElementException;
+
+/**
+ * Bean 与 Map 的互相转换。<br>
+ * 转换借助 {@link ClassWrapper} 缓存的属性句柄, 不再逐次反射查找属性;
+ * {@link #view(Object)} 返回的只读视图不复制属性, 只在读取时才访问属性的值
+ * 
+ * @author Lychie Fan
+ */
+public final class BeanMap extends AbstractMap<String, Object> {
+
+	private final Object bean;
+	private final PropertyTable table;
+	private EntrySet entrySet;
+
+	private BeanMap(Object bean) {
+		this.bean = bean;
+		this.table = ClassWrapper.wrap(bean.getClass()).table;
+	}
+
+	/**
+	 * 将 Bean 转换成 Map, 键为属性名称, 按属性的索引排列
+	 * 
+	 * @param bean
+	 *            被转换的对象
+	 * @return 可修改的 Map
+	 */
+	public static Map<String, Object> toMap(Object bean) {
+		if (bean == null) {
+			throw new NullPointerException("the argument bean can not be null");
+		}
+		PropertyHandle[] handles = ClassWrapper.wrap(bean.getClass()).table
+				.all();
+		Map<String, Object> map = new LinkedHashMap<String, Object>(
+				handles.length * 4 / 3 + 1);
+		for (PropertyHandle handle : handles) {
+			map.put(handle.getName(), handle.get(bean));
+		}
+		return map;
+	}
+
+	/**
+	 * 将 Map 转换成 Bean。类中不存在的键被忽略, 基本类型的属性遇到 null 值时保持默认值
+	 * 
+	 * @param map
+	 *            属性名称到属性值的映射
+	 * @param beanClass
+	 *            类, 须有无参构造方法
+	 * @return
+	 */
+	public static <E> E fromMap(Map<String, ?> map, Class<E> beanClass) {
+		ClassWrapper wrapper = ClassWrapper.wrap(beanClass);
+		E bean = wrapper.newInstance();
+		populate(bean, map);
+		return bean;
+	}
+
+	/**
+	 * 用 Map 中的值填充 Bean 的属性。类中不存在的键被忽略, 基本类型的属性遇到 null 值时保持不变
+	 * 
+	 * @param bean
+	 *            被填充的对象
+	 * @param map
+	 *            属性名称到属性值的映射
+	 */
+	public static void populate(Object bean, Map<String, ?> map) {
+		PropertyTable table = ClassWrapper.wrap(bean.getClass()).table;
+		for (Map.Entry<String, ?> entry : map.entrySet()) {
+			PropertyHandle handle = table.find(entry.getKey());
+			if (handle == null) {
+				continue;
+			}
+			Object value = entry.getValue();
+			if (value == null && handle.getType().isPrimitive()) {
+				continue;
+			}
+			handle.set(bean, value);
+		}
+	}
+
+	/**
+	 * 获取 Bean 的只读 Map 视图。视图不复制属性的值, 每次读取都反映 Bean 的当前状态,
+	 * 遍历时才创建 Map.Entry
+	 * 
+	 * @param bean
+	 *            被转换的对象
+	 * @return
+	 */
+	public static Map<String, Object> view(Object bean) {
+		if (bean == null) {
+			throw new NullPointerException("the argument bean can not be null");
+		}
+		return new BeanMap(bean);
+	}
+
+	/**
+	 * 获取视图对应的 Bean
+	 * 
+	 * @return
+	 */
+	public Object getBean() {
+		return bean;
+	}
+
+	@Override
+	public Object get(Object key) {
+		PropertyHandle handle = handleOf(key);
+		return handle == null ? null : handle.get(bean);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return handleOf(key) != null;
+	}
+
+	@Override
+	public Set<String> keySet() {
+		return table.handles().keySet();
+	}
+
+	@Override
+	public int size() {
+		return table.all().length;
+	}
+
+	@Override
+	public Set<Map.Entry<String, Object>> entrySet() {
+		EntrySet result = entrySet;
+		if (result == null) {
+			entrySet = result = new EntrySet();
+		}
+		return result;
+	}
+
+	private PropertyHandle handleOf(Object key) {
+		return key instanceof String ? table.find((String) key) : null;
+	}
+
+	/**
+	 * 视图的 Entry 集合
+	 */
+	private class EntrySet extends AbstractSet<Map.Entry<String, Object>> {
+
+		@Override
+		public Iterator<Map.Entry<String, Object>> iterator() {
+			final PropertyHandle[] handles = table.all();
+			return new Iterator<Map.Entry<String, Object>>() {
+
+				private int index;
+
+				@Override
+				public boolean hasNext() {
+					return index < handles.length;
+				}
+
+				@Override
+				public Map.Entry<String, Object> next() {
+					if (index >= handles.length) {
+						throw new NoSuchElementException();
+					}
+					PropertyHandle handle = handles[index++];
+					return new SimpleImmutableEntry<String, Object>(
+							handle.getName(), handle.get(bean));
+				}
+
+				@Override
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+
+			};
+		}
+
+		@Override
+		public int size() {
+			return table.all().length;
+		}
+
+	}
+
+}
\ No newline at end of file
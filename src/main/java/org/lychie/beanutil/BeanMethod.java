@@ -1,9 +1,15 @@
 package org.lychie.beanutil;
 
+import java.util.Set;
+import java.util.List;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.ArrayList;
 import java.lang.reflect.Method;
-import java.lang.reflect.Constructor;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.lychie.beanutil.exception.BeanException;
-import org.lychie.beanutil.exception.AbnormalException;
 
 /**
  * Bean method 工具类
@@ -12,8 +18,21 @@ import org.lychie.beanutil.exception.AbnormalException;
  */
 public class BeanMethod {
 
+	/* 缓存中表示方法不存在的标记 */
+	private static final Object missing = new Object();
+	/* 缓存的版本号, 每次 evictAll 递增 */
+	private static final AtomicInteger generation = new AtomicInteger();
+	/* 以类为键的方法缓存, 包括查找失败的结果 */
+	private static final ClassValue<MethodCache> methodCache = new ClassValue<MethodCache>() {
+		@Override
+		protected MethodCache computeValue(Class<?> type) {
+			return new MethodCache();
+		}
+	};
+
 	/**
-	 * 调用方法, 方法不能存在基本数据类型
+	 * 调用方法。按参数值的实际类型, 依照 Java 的重载规则(子类型、基本类型拓宽、装箱/拆箱)
+	 * 选择最具体的方法, 参数值可为 null。包装类型的参数值视为对应的基本类型, 与源码中传入基本类型的调用一致
 	 * 
 	 * @param object
 	 *            调用类方法时, 该参数可为Class对象; 调用对象方法时, 该参数必须为类的一个实例
@@ -25,8 +44,17 @@ public class BeanMethod {
 	public static <E> E invoke(Object object, String methodName,
 			Object... argValues) {
 
-		return invoke(object, methodName, argValues,
-				BeanClass.getArgumentsActualType(argValues));
+		int length = argValues == null ? 0 : argValues.length;
+		Class<?>[] argTypes = new Class<?>[length];
+		for (int i = 0; i < length; i++) {
+			Object value = argValues[i];
+			/* 包装类型的值按基本类型参与匹配, 使 f(int) 优先于 f(Object) */
+			argTypes[i] = value == null ? null : BeanClass
+					.getPrimitiveClass(value.getClass());
+		}
+		Class<?> beanClass = BeanClass.getClass(object);
+		return getInvoker(beanClass, methodName, argTypes).invoke(object,
+				argValues);
 	}
 
 	/**
@@ -55,12 +83,12 @@ public class BeanMethod {
 		} catch (ClassCastException e) { // must catch ClassCastException
 			throw e;
 		} catch (Throwable e) {
-			throw new AbnormalException(e);
+			throw BeanMetrics.abnormal(e);
 		}
 	}
 
 	/**
-	 * 获取可访问的方法
+	 * 获取可访问的方法。查找结果(包括找不到的结果)按类、方法名称及参数类型缓存
 	 * 
 	 * @param beanClass
 	 *            类
@@ -73,6 +101,151 @@ public class BeanMethod {
 	public static Method getAccessibleMethod(Class<?> beanClass,
 			String methodName, Class<?>... types) {
 
+		Object target = lookupMethod(beanClass, methodName, types);
+		if (target != missing) {
+			return (Method) target;
+		}
+		throw new BeanException(methodName + "(" + typeNames(types)
+				+ ") method can not be found in the class "
+				+ beanClass.getSimpleName());
+	}
+
+	/**
+	 * 查找可访问的方法, 找不到时返回 null 而不抛出异常
+	 * 
+	 * @param beanClass
+	 *            类
+	 * @param methodName
+	 *            方法名称
+	 * @param types
+	 *            方法参数类型
+	 * @return
+	 */
+	public static Method findAccessibleMethod(Class<?> beanClass,
+			String methodName, Class<?>... types) {
+
+		Object target = lookupMethod(beanClass, methodName, types);
+		return target != missing ? (Method) target : null;
+	}
+
+	/**
+	 * 是否存在可访问的方法, 不抛出异常
+	 * 
+	 * @param beanClass
+	 *            类
+	 * @param methodName
+	 *            方法名称
+	 * @param types
+	 *            方法参数类型
+	 * @return
+	 */
+	public static boolean hasMethod(Class<?> beanClass, String methodName,
+			Class<?>... types) {
+
+		return lookupMethod(beanClass, methodName, types) != missing;
+	}
+
+	/**
+	 * 获取方法调用器。按参数类型, 依照 Java 的重载规则选择最具体的方法: 先只允许子类型与基本类型拓宽,
+	 * 找不到再允许装箱/拆箱。解析结果按类、方法名称及参数类型缓存
+	 * 
+	 * @param beanClass
+	 *            类
+	 * @param methodName
+	 *            方法名称
+	 * @param argTypes
+	 *            参数的类型, 元素为 null 表示参数值为 null, 可匹配任意引用类型
+	 * @return
+	 */
+	public static MethodInvoker getInvoker(Class<?> beanClass,
+			String methodName, Class<?>... argTypes) {
+
+		Object target = lookupInvoker(beanClass, methodName, argTypes);
+		if (target instanceof MethodInvoker) {
+			return (MethodInvoker) target;
+		}
+		throw new BeanException(target + ": " + methodName + "("
+				+ typeNames(argTypes) + ") in the class "
+				+ beanClass.getSimpleName());
+	}
+
+	/**
+	 * 查找方法调用器, 找不到或无法确定唯一的方法时返回 null 而不抛出异常
+	 * 
+	 * @param beanClass
+	 *            类
+	 * @param methodName
+	 *            方法名称
+	 * @param argTypes
+	 *            参数的类型, 元素为 null 表示参数值为 null, 可匹配任意引用类型
+	 * @return
+	 */
+	public static MethodInvoker findInvoker(Class<?> beanClass,
+			String methodName, Class<?>... argTypes) {
+
+		Object target = lookupInvoker(beanClass, methodName, argTypes);
+		return target instanceof MethodInvoker ? (MethodInvoker) target
+				: null;
+	}
+
+	/**
+	 * 移除类的方法缓存
+	 * 
+	 * @param beanClass
+	 *            类
+	 */
+	public static void evict(Class<?> beanClass) {
+		methodCache.remove(beanClass);
+	}
+
+	/**
+	 * 使所有类的方法缓存失效
+	 */
+	public static void evictAll() {
+		generation.incrementAndGet();
+	}
+
+	/**
+	 * 经缓存查找方法
+	 * 
+	 * @return 方法, 找不到时返回 missing
+	 */
+	private static Object lookupMethod(Class<?> beanClass, String methodName,
+			Class<?>[] types) {
+
+		if (methodName == null) {
+			throw new NullPointerException(
+					"the argument methodName can not be null");
+		}
+		if (beanClass == null) {
+			throw new NullPointerException(
+					"the argument beanClass can not be null");
+		}
+		MethodCache cache = cacheOf(beanClass);
+		MethodKey key = new MethodKey(methodName, types, false);
+		Object target = cache.get(key);
+		BeanMetricsListener listener = BeanMetrics.listener;
+		if (listener != null) {
+			listener.onMethodLookup(beanClass, methodName, target != null);
+		}
+		if (target == null) {
+			target = findMethod(beanClass, methodName, key.types);
+			cache.put(key.copy(), target);
+		}
+		if (target == missing && listener != null) {
+			listener.onMethodNotFound(beanClass, methodName);
+		}
+		return target;
+	}
+
+	/**
+	 * 经缓存查找方法调用器
+	 * 
+	 * @return 调用器, 找不到时返回失败的原因
+	 */
+	private static Object lookupInvoker(Class<?> beanClass,
+			String methodName, Class<?>[] argTypes) {
+
 		if (methodName == null) {
 			throw new NullPointerException(
 					"the argument methodName can not be null");
@@ -81,30 +254,329 @@ public class BeanMethod {
 			throw new NullPointerException(
 					"the argument beanClass can not be null");
 		}
-		String beanClassName = beanClass.getSimpleName();
+		MethodCache cache = cacheOf(beanClass);
+		MethodKey key = new MethodKey(methodName, argTypes, true);
+		Object target = cache.get(key);
+		BeanMetricsListener listener = BeanMetrics.listener;
+		if (listener != null) {
+			listener.onMethodLookup(beanClass, methodName, target != null);
+		}
+		if (target == null) {
+			target = resolveInvoker(beanClass, methodName, key.types);
+			cache.put(key.copy(), target);
+		}
+		if (!(target instanceof MethodInvoker) && listener != null) {
+			listener.onMethodNotFound(beanClass, methodName);
+		}
+		return target;
+	}
+
+	private static MethodCache cacheOf(Class<?> beanClass) {
+		MethodCache cache = methodCache.get(beanClass);
+		if (cache.version != generation.get()) {
+			methodCache.remove(beanClass);
+			cache = methodCache.get(beanClass);
+		}
+		return cache;
+	}
+
+	/**
+	 * 沿类的继承链查找方法, 不依赖异常控制流程
+	 * 
+	 * @param beanClass
+	 *            类
+	 * @param methodName
+	 *            方法名称
+	 * @param types
+	 *            方法参数类型
+	 * @return 找不到时返回 missing
+	 */
+	private static Object findMethod(Class<?> beanClass, String methodName,
+			Class<?>[] types) {
+
 		while (beanClass != null) {
-			try {
-				Method target = beanClass.getDeclaredMethod(methodName, types);
-				target.setAccessible(true);
-				return target;
-			} catch (Throwable e) {
-				/* ignore */
+			Method target = null;
+			for (Method method : beanClass.getDeclaredMethods()) {
+				if (method.getName().equals(methodName)
+						&& Arrays.equals(method.getParameterTypes(), types)) {
+					/* 协变返回类型会产生多个同签名的方法, 取返回类型最具体的一个 */
+					if (target == null
+							|| target.getReturnType().isAssignableFrom(
+									method.getReturnType())) {
+						target = method;
+					}
+				}
+			}
+			if (target != null) {
+				try {
+					target.setAccessible(true);
+					return target;
+				} catch (RuntimeException e) {
+					/* ignore */
+				}
 			}
 			beanClass = beanClass.getSuperclass();
 		}
-		String argsType = "";
-		if (types != null) {
-			StringBuilder builder = new StringBuilder();
-			for (Class<?> type : types) {
-				builder.append(type.getSimpleName()).append(", ");
+		return missing;
+	}
+
+	/**
+	 * 按重载规则解析方法并创建调用器
+	 * 
+	 * @param beanClass
+	 *            类
+	 * @param methodName
+	 *            方法名称
+	 * @param argTypes
+	 *            参数的类型
+	 * @return 调用器, 或说明失败原因的字符串
+	 */
+	private static Object resolveInvoker(Class<?> beanClass,
+			String methodName, Class<?>[] argTypes) {
+
+		List<Method> candidates = new ArrayList<Method>();
+		Set<List<Class<?>>> signatures = new HashSet<List<Class<?>>>();
+		for (Class<?> type = beanClass; type != null; type = type
+				.getSuperclass()) {
+			for (Method method : type.getDeclaredMethods()) {
+				if (!method.getName().equals(methodName)
+						|| method.isBridge()
+						|| method.getParameterTypes().length != argTypes.length) {
+					continue;
+				}
+				/* 子类中重写的方法优先 */
+				if (signatures.add(Arrays.asList(method.getParameterTypes()))) {
+					candidates.add(method);
+				}
+			}
+		}
+		List<Method> applicable = applicable(candidates, argTypes, false);
+		if (applicable.isEmpty()) {
+			applicable = applicable(candidates, argTypes, true);
+		}
+		if (applicable.isEmpty()) {
+			return "no applicable method";
+		}
+		Method target = mostSpecific(applicable);
+		if (target == null) {
+			return "ambiguous method";
+		}
+		try {
+			target.setAccessible(true);
+			return new MethodInvoker(target);
+		} catch (Throwable e) {
+			return "inaccessible method";
+		}
+	}
+
+	/**
+	 * 筛选可用参数类型调用的方法
+	 * 
+	 * @param candidates
+	 *            候选方法
+	 * @param argTypes
+	 *            参数的类型
+	 * @param boxing
+	 *            是否允许装箱/拆箱
+	 * @return
+	 */
+	private static List<Method> applicable(List<Method> candidates,
+			Class<?>[] argTypes, boolean boxing) {
+
+		List<Method> list = new ArrayList<Method>();
+		for (Method method : candidates) {
+			Class<?>[] paramTypes = method.getParameterTypes();
+			boolean matched = true;
+			for (int i = 0; i < paramTypes.length && matched; i++) {
+				matched = isConvertible(argTypes[i], paramTypes[i], boxing);
+			}
+			if (matched) {
+				list.add(method);
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * 选出最具体的方法
+	 * 
+	 * @param methods
+	 *            可用的方法
+	 * @return 不存在唯一最具体的方法时返回 null
+	 */
+	private static Method mostSpecific(List<Method> methods) {
+		for (Method method : methods) {
+			boolean specific = true;
+			for (Method other : methods) {
+				if (other != method && !isMoreSpecific(method, other)) {
+					specific = false;
+					break;
+				}
 			}
-			int length = builder.length();
-			if (length > 0) {
-				argsType = builder.substring(0, length - 2);
+			if (specific) {
+				return method;
 			}
 		}
-		throw new BeanException(methodName + "(" + argsType
-				+ ") method can not be found in the class " + beanClassName);
+		return null;
+	}
+
+	private static boolean isMoreSpecific(Method method, Method other) {
+		Class<?>[] types = method.getParameterTypes();
+		Class<?>[] otherTypes = other.getParameterTypes();
+		for (int i = 0; i < types.length; i++) {
+			if (!isConvertible(types[i], otherTypes[i], false)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 参数类型能否传给方法参数
+	 * 
+	 * @param argType
+	 *            参数的类型, null 表示参数值为 null
+	 * @param paramType
+	 *            方法参数的类型
+	 * @param boxing
+	 *            是否允许装箱/拆箱
+	 * @return
+	 */
+	private static boolean isConvertible(Class<?> argType,
+			Class<?> paramType, boolean boxing) {
+
+		if (argType == null) {
+			return !paramType.isPrimitive();
+		}
+		if (paramType.isPrimitive()) {
+			if (!argType.isPrimitive()) {
+				if (!boxing) {
+					return false;
+				}
+				argType = BeanClass.getPrimitiveClass(argType);
+			}
+			return isWidening(argType, paramType);
+		}
+		if (argType.isPrimitive()) {
+			if (!boxing) {
+				return false;
+			}
+			argType = BeanClass.getWrapperClass(argType);
+		}
+		return paramType.isAssignableFrom(argType);
+	}
+
+	/**
+	 * 基本类型的恒等或拓宽转换
+	 */
+	private static boolean isWidening(Class<?> from, Class<?> to) {
+		if (from == to) {
+			return true;
+		}
+		if (from == byte.class) {
+			return to == short.class || to == int.class || to == long.class
+					|| to == float.class || to == double.class;
+		}
+		if (from == short.class || from == char.class) {
+			return to == int.class || to == long.class || to == float.class
+					|| to == double.class;
+		}
+		if (from == int.class) {
+			return to == long.class || to == float.class
+					|| to == double.class;
+		}
+		if (from == long.class) {
+			return to == float.class || to == double.class;
+		}
+		if (from == float.class) {
+			return to == double.class;
+		}
+		return false;
+	}
+
+	/**
+	 * 参数类型的简单名称列表
+	 */
+	private static String typeNames(Class<?>[] types) {
+		if (types == null || types.length == 0) {
+			return "";
+		}
+		StringBuilder builder = new StringBuilder();
+		for (Class<?> type : types) {
+			if (builder.length() > 0) {
+				builder.append(", ");
+			}
+			builder.append(type == null ? "null" : type.getSimpleName());
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * 方法缓存的键
+	 */
+	private static final class MethodKey {
+
+		private final String name;
+		private final Class<?>[] types;
+		private final boolean overload;
+		private final int hash;
+
+		MethodKey(String name, Class<?>[] types, boolean overload) {
+			this.name = name;
+			this.types = types == null ? new Class<?>[0] : types;
+			this.overload = overload;
+			this.hash = name.hashCode() * 31 + Arrays.hashCode(this.types)
+					+ (overload ? 1 : 0);
+		}
+
+		/**
+		 * 复制参数类型数组, 存入缓存的键不能与调用者共享数组
+		 * 
+		 * @return
+		 */
+		MethodKey copy() {
+			return new MethodKey(name, types.clone(), overload);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof MethodKey)) {
+				return false;
+			}
+			MethodKey other = (MethodKey) obj;
+			return overload == other.overload && name.equals(other.name)
+					&& Arrays.equals(types, other.types);
+		}
+
+	}
+
+	/**
+	 * 单个类的方法缓存, 值为方法、调用器或查找失败的标记。条目数超过上限时淘汰任意一个已有条目
+	 */
+	private static final class MethodCache extends
+			ConcurrentHashMap<MethodKey, Object> {
+
+		private static final long serialVersionUID = -4419625325318810406L;
+		private static final int maxSize = 256;
+
+		private final int version = generation.get();
+
+		@Override
+		public Object put(MethodKey key, Object value) {
+			if (size() >= maxSize) {
+				Iterator<MethodKey> keys = keySet().iterator();
+				if (keys.hasNext()) {
+					remove(keys.next());
+				}
+			}
+			return super.put(key, value);
+		}
+
 	}
 
 	/**
@@ -134,14 +606,8 @@ public class BeanMethod {
 	static <E> E invokeConstructor(Class<E> beanClass, Object[] argValues,
 			Class<?>[] argTypes) {
 
-		try {
-			Constructor<E> constructor = beanClass
-					.getDeclaredConstructor(argTypes);
-			constructor.setAccessible(true);
-			return constructor.newInstance(argValues);
-		} catch (Throwable e) {
-			throw new AbnormalException(e);
-		}
+		return BeanClass.getFactory(beanClass, argTypes).apply(
+				argValues == null ? new Object[0] : argValues);
 	}
 
 }
\ No newline at end of file
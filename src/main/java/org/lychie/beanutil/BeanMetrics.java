@@ -0,0 +1,209 @@
+package org.lychie.beanutil;
+
+import java.util.List;
+import java.util.ArrayList;
+import javax.management.ObjectName;
+import javax.management.MBeanServer;
+import java.lang.management.ManagementFactory;
+import org.lychie.beanutil.exception.AbnormalException;
+
+/**
+ * 度量的入口。默认不启用, 此时各处埋点只读取一次 volatile 字段。<br>
+ * {@link #enable()} 注册内置的 {@link BeanStatistics}, 并以
+ * org.lychie.beanutil:type=BeanStatistics 发布为 JMX MBean; 也可以注册自定义的
+ * {@link BeanMetricsListener}, 将度量转发到其它监控系统
+ * 
+ * @author Lychie Fan
+ */
+public final class BeanMetrics {
+
+	private static final String objectName = "org.lychie.beanutil:type=BeanStatistics";
+	private static final List<BeanMetricsListener> listeners = new ArrayList<BeanMetricsListener>();
+	/* 当前生效的监听器, 未注册时为 null, 否则为转发给已注册监听器的 Multicaster */
+	static volatile BeanMetricsListener listener;
+	private static BeanStatistics statistics;
+
+	private BeanMetrics() {
+	}
+
+	/**
+	 * 启用内置的统计并发布为 JMX MBean, 已启用时返回已有的统计
+	 * 
+	 * @return
+	 */
+	public static synchronized BeanStatistics enable() {
+		if (statistics == null) {
+			statistics = new BeanStatistics();
+			addListener(statistics);
+			try {
+				MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+				ObjectName name = new ObjectName(objectName);
+				if (server.isRegistered(name)) {
+					server.unregisterMBean(name);
+				}
+				server.registerMBean(statistics, name);
+			} catch (Exception e) {
+				/* JMX 不可用时仍可通过返回值读取统计 */
+			}
+		}
+		return statistics;
+	}
+
+	/**
+	 * 停用内置的统计并注销 JMX MBean
+	 */
+	public static synchronized void disable() {
+		if (statistics != null) {
+			removeListener(statistics);
+			statistics = null;
+			try {
+				ManagementFactory.getPlatformMBeanServer().unregisterMBean(
+						new ObjectName(objectName));
+			} catch (Exception e) {
+				/* ignore */
+			}
+		}
+	}
+
+	/**
+	 * 注册监听器
+	 * 
+	 * @param metricsListener
+	 *            监听器
+	 */
+	public static synchronized void addListener(
+			BeanMetricsListener metricsListener) {
+
+		if (metricsListener == null) {
+			throw new NullPointerException(
+					"the argument metricsListener can not be null");
+		}
+		listeners.add(metricsListener);
+		update();
+	}
+
+	/**
+	 * 注销监听器
+	 * 
+	 * @param metricsListener
+	 *            监听器
+	 */
+	public static synchronized void removeListener(
+			BeanMetricsListener metricsListener) {
+
+		listeners.remove(metricsListener);
+		update();
+	}
+
+	/**
+	 * 获取当前生效的监听器, 即依次转发给已注册监听器并隔离其异常的监听器
+	 * 
+	 * @return 没有注册监听器时返回 null
+	 */
+	public static BeanMetricsListener getListener() {
+		return listener;
+	}
+
+	/**
+	 * 包装反射等操作的异常, 并通知监听器。监听器自身抛出的异常被 Multicaster 忽略, 不会取代真实的异常
+	 * 
+	 * @param e
+	 *            真实的异常
+	 * @return
+	 */
+	static AbnormalException abnormal(Throwable e) {
+		BeanMetricsListener current = listener;
+		if (current != null) {
+			current.onAbnormal(e);
+		}
+		return new AbnormalException(e);
+	}
+
+	private static void update() {
+		/* 只有一个监听器时同样经 Multicaster 转发, 以隔离监听器抛出的异常 */
+		listener = listeners.isEmpty() ? null : new Multicaster(
+				listeners.toArray(new BeanMetricsListener[listeners.size()]));
+	}
+
+	/**
+	 * 将回调依次转发给各监听器。监听器抛出的异常被忽略, 既不取代埋点处的结果或异常, 也不妨碍其余监听器
+	 */
+	private static final class Multicaster implements BeanMetricsListener {
+
+		private final BeanMetricsListener[] targets;
+
+		Multicaster(BeanMetricsListener[] targets) {
+			this.targets = targets;
+		}
+
+		@Override
+		public void onWrap(Class<?> beanClass, long nanos) {
+			for (BeanMetricsListener target : targets) {
+				try {
+					target.onWrap(beanClass, nanos);
+				} catch (Throwable ignored) {
+					/* ignore */
+				}
+			}
+		}
+
+		@Override
+		public void onWrapperCreated(Class<?> beanClass) {
+			for (BeanMetricsListener target : targets) {
+				try {
+					target.onWrapperCreated(beanClass);
+				} catch (Throwable ignored) {
+					/* ignore */
+				}
+			}
+		}
+
+		@Override
+		public void onMethodLookup(Class<?> beanClass, String methodName,
+				boolean cacheHit) {
+
+			for (BeanMetricsListener target : targets) {
+				try {
+					target.onMethodLookup(beanClass, methodName, cacheHit);
+				} catch (Throwable ignored) {
+					/* ignore */
+				}
+			}
+		}
+
+		@Override
+		public void onMethodNotFound(Class<?> beanClass, String methodName) {
+			for (BeanMetricsListener target : targets) {
+				try {
+					target.onMethodNotFound(beanClass, methodName);
+				} catch (Throwable ignored) {
+					/* ignore */
+				}
+			}
+		}
+
+		@Override
+		public void onPropertyNotFound(Class<?> beanClass, String propertyName) {
+			for (BeanMetricsListener target : targets) {
+				try {
+					target.onPropertyNotFound(beanClass, propertyName);
+				} catch (Throwable ignored) {
+					/* ignore */
+				}
+			}
+		}
+
+		@Override
+		public void onAbnormal(Throwable cause) {
+			for (BeanMetricsListener target : targets) {
+				try {
+					target.onAbnormal(cause);
+				} catch (Throwable ignored) {
+					/* ignore */
+				}
+			}
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,69 @@
+package org.lychie.beanutil;
+
+/**
+ * 度量监听器, 通过 {@link BeanMetrics#addListener(BeanMetricsListener)} 注册。<br>
+ * 回调在调用线程上同步执行, 实现应当快速; 回调抛出的异常被忽略, 不影响被度量的操作与其它监听器
+ * 
+ * @author Lychie Fan
+ */
+public interface BeanMetricsListener {
+
+	/**
+	 * 调用了 {@link ClassWrapper#wrap(Class)}
+	 * 
+	 * @param beanClass
+	 *            被包装的类
+	 * @param nanos
+	 *            耗时(纳秒)
+	 */
+	void onWrap(Class<?> beanClass, long nanos);
+
+	/**
+	 * 包装器缓存未命中, 重新解析了类的属性表
+	 * 
+	 * @param beanClass
+	 *            被包装的类
+	 */
+	void onWrapperCreated(Class<?> beanClass);
+
+	/**
+	 * 查找了方法
+	 * 
+	 * @param beanClass
+	 *            类
+	 * @param methodName
+	 *            方法名称
+	 * @param cacheHit
+	 *            是否命中方法缓存
+	 */
+	void onMethodLookup(Class<?> beanClass, String methodName, boolean cacheHit);
+
+	/**
+	 * 找不到方法或无法确定唯一的方法
+	 * 
+	 * @param beanClass
+	 *            类
+	 * @param methodName
+	 *            方法名称
+	 */
+	void onMethodNotFound(Class<?> beanClass, String methodName);
+
+	/**
+	 * 找不到属性
+	 * 
+	 * @param beanClass
+	 *            类
+	 * @param propertyName
+	 *            属性名称
+	 */
+	void onPropertyNotFound(Class<?> beanClass, String propertyName);
+
+	/**
+	 * 库内部将异常包装为 {@link org.lychie.beanutil.exception.AbnormalException} 抛出
+	 * 
+	 * @param cause
+	 *            被包装的异常
+	 */
+	void onAbnormal(Throwable cause);
+
+}
\ No newline at end of file
@@ -0,0 +1,170 @@
+package org.lychie.beanutil;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 内置的统计, 由 {@link BeanMetrics#enable()} 创建。<br>
+ * 计数使用 {@link LongAdder}; wrap 的耗时记录在按 2 的幂划分的直方图中,
+ * 分位数取所在区间的上界
+ * 
+ * @author Lychie Fan
+ */
+public class BeanStatistics implements BeanMetricsListener,
+		BeanStatisticsMBean {
+
+	private final LongAdder wraps = new LongAdder();
+	private final LongAdder wrapNanos = new LongAdder();
+	private final LongAdder wrapperCreations = new LongAdder();
+	private final LongAdder methodLookups = new LongAdder();
+	private final LongAdder methodCacheHits = new LongAdder();
+	private final LongAdder methodNotFound = new LongAdder();
+	private final LongAdder propertyNotFound = new LongAdder();
+	private final LongAdder abnormals = new LongAdder();
+	/* 第 i 个区间记录耗时在 [2^(i-1), 2^i) 纳秒内的次数 */
+	private final AtomicLongArray wrapHistogram = new AtomicLongArray(64);
+
+	BeanStatistics() {
+	}
+
+	@Override
+	public void onWrap(Class<?> beanClass, long nanos) {
+		wraps.increment();
+		wrapNanos.add(nanos);
+		wrapHistogram.incrementAndGet(64 - Long.numberOfLeadingZeros(Math
+				.max(nanos, 0)) & 63);
+	}
+
+	@Override
+	public void onWrapperCreated(Class<?> beanClass) {
+		wrapperCreations.increment();
+	}
+
+	@Override
+	public void onMethodLookup(Class<?> beanClass, String methodName,
+			boolean cacheHit) {
+
+		methodLookups.increment();
+		if (cacheHit) {
+			methodCacheHits.increment();
+		}
+	}
+
+	@Override
+	public void onMethodNotFound(Class<?> beanClass, String methodName) {
+		methodNotFound.increment();
+	}
+
+	@Override
+	public void onPropertyNotFound(Class<?> beanClass, String propertyName) {
+		propertyNotFound.increment();
+	}
+
+	@Override
+	public void onAbnormal(Throwable cause) {
+		abnormals.increment();
+	}
+
+	@Override
+	public long getWrapCount() {
+		return wraps.sum();
+	}
+
+	@Override
+	public long getWrapCacheHits() {
+		return Math.max(wraps.sum() - wrapperCreations.sum(), 0);
+	}
+
+	@Override
+	public long getWrapCacheMisses() {
+		return wrapperCreations.sum();
+	}
+
+	@Override
+	public double getWrapMeanNanos() {
+		long count = wraps.sum();
+		return count == 0 ? 0 : (double) wrapNanos.sum() / count;
+	}
+
+	@Override
+	public long getWrapP50Nanos() {
+		return percentile(0.50);
+	}
+
+	@Override
+	public long getWrapP99Nanos() {
+		return percentile(0.99);
+	}
+
+	@Override
+	public long getMethodLookupCount() {
+		return methodLookups.sum();
+	}
+
+	@Override
+	public long getMethodCacheHits() {
+		return methodCacheHits.sum();
+	}
+
+	@Override
+	public long getMethodCacheMisses() {
+		return Math.max(methodLookups.sum() - methodCacheHits.sum(), 0);
+	}
+
+	@Override
+	public long getMethodNotFoundCount() {
+		return methodNotFound.sum();
+	}
+
+	@Override
+	public long getPropertyNotFoundCount() {
+		return propertyNotFound.sum();
+	}
+
+	@Override
+	public long getAbnormalCount() {
+		return abnormals.sum();
+	}
+
+	@Override
+	public void reset() {
+		wraps.reset();
+		wrapNanos.reset();
+		wrapperCreations.reset();
+		methodLookups.reset();
+		methodCacheHits.reset();
+		methodNotFound.reset();
+		propertyNotFound.reset();
+		abnormals.reset();
+		for (int i = 0; i < wrapHistogram.length(); i++) {
+			wrapHistogram.set(i, 0);
+		}
+	}
+
+	/**
+	 * 估算 wrap 耗时的分位数
+	 * 
+	 * @param quantile
+	 *            分位, 0 ~ 1
+	 * @return 所在区间的上界(纳秒), 没有记录时返回 0
+	 */
+	private long percentile(double quantile) {
+		long total = 0;
+		for (int i = 0; i < wrapHistogram.length(); i++) {
+			total += wrapHistogram.get(i);
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(total * quantile);
+		long seen = 0;
+		for (int i = 0; i < wrapHistogram.length(); i++) {
+			seen += wrapHistogram.get(i);
+			if (seen >= rank) {
+				return i == 63 ? Long.MAX_VALUE : 1L << i;
+			}
+		}
+		return Long.MAX_VALUE;
+	}
+
+}
\ No newline at end of file
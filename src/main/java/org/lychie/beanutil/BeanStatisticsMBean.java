@@ -0,0 +1,36 @@
+package org.lychie.beanutil;
+
+/**
+ * {@link BeanStatistics} 的 JMX 管理接口
+ * 
+ * @author Lychie Fan
+ */
+public interface BeanStatisticsMBean {
+
+	long getWrapCount();
+
+	long getWrapCacheHits();
+
+	long getWrapCacheMisses();
+
+	double getWrapMeanNanos();
+
+	long getWrapP50Nanos();
+
+	long getWrapP99Nanos();
+
+	long getMethodLookupCount();
+
+	long getMethodCacheHits();
+
+	long getMethodCacheMisses();
+
+	long getMethodNotFoundCount();
+
+	long getPropertyNotFoundCount();
+
+	long getAbnormalCount();
+
+	void reset();
+
+}
\ No newline at end of file
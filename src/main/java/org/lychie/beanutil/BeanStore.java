@@ -0,0 +1,350 @@
+package org.lychie.beanutil;
+
+import java.util.List;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Files;
+import java.nio.MappedByteBuffer;
+import java.nio.file.OpenOption;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import org.lychie.beanutil.exception.BeanException;
+
+/**
+ * 以 {@link BeanLayout} 为记录格式、经 {@link FileChannel#map} 映射的只追加的 Bean 文件存储。<br>
+ * 文件头记录布局的属性名称、类型与偏移(枚举还记录常量的名称与顺序), 打开已有文件时与类当前的布局比较, 不一致时抛出异常;
+ * 记录按编号随机访问, {@link #bufferOf(long)} 与 {@link #positionOf(long)} 配合
+ * {@link LayoutField} 可以直接读取映射内存中的单个属性, 不复制、不还原对象。<br>
+ * 文件按段映射(每段约 64MB), 以突破单个映射 2GB 的限制。追加是同步的, 读取可以并发进行
+ * 
+ * @author Lychie Fan
+ */
+public final class BeanStore<E> implements Closeable {
+
+	private static final int magic = 0x424E5354;
+	private static final int formatVersion = 2;
+	private static final int segmentBytes = 64 << 20;
+	private static final int countOffset = 16;
+
+	private final BeanLayout<E> layout;
+	private final FileChannel channel;
+	private final boolean readOnly;
+	private final int recordSize;
+	private final int headerSize;
+	private final int recordsPerSegment;
+	private final MappedByteBuffer header;
+	/* 已映射的段, 追加时复制后整体替换, 读取无需加锁 */
+	private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+	private volatile long count;
+
+	private BeanStore(Path path, Class<E> beanClass, boolean readOnly)
+			throws IOException {
+
+		this.layout = BeanLayout.of(beanClass);
+		this.readOnly = readOnly;
+		this.recordSize = layout.getRecordSize();
+		this.recordsPerSegment = Math.max(segmentBytes / recordSize, 1);
+		OpenOption[] options = readOnly ? new OpenOption[] { StandardOpenOption.READ }
+				: new OpenOption[] { StandardOpenOption.READ,
+						StandardOpenOption.WRITE, StandardOpenOption.CREATE };
+		boolean exists = Files.exists(path) && Files.size(path) > 0;
+		if (!exists && readOnly) {
+			throw new BeanException(path + " is not a bean store");
+		}
+		this.channel = FileChannel.open(path, options);
+		try {
+			byte[] schema = schemaOf(layout);
+			if (!exists) {
+				ByteBuffer created = ByteBuffer.allocate(align(countOffset + 8
+						+ schema.length));
+				created.putInt(magic).putInt(formatVersion)
+						.putInt(created.capacity()).putInt(recordSize)
+						.putLong(0).put(schema);
+				created.clear();
+				while (created.hasRemaining()) {
+					channel.write(created, created.position());
+				}
+			}
+			this.headerSize = verify(path, schema);
+			this.header = channel.map(readOnly ? FileChannel.MapMode.READ_ONLY
+					: FileChannel.MapMode.READ_WRITE, 0, headerSize);
+			this.count = header.getLong(countOffset);
+			long segmentCount = (count + recordsPerSegment - 1)
+					/ recordsPerSegment;
+			for (long i = 0; i < segmentCount; i++) {
+				mapSegment();
+			}
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		} catch (RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * 打开或创建存储, 可读可追加
+	 * 
+	 * @param path
+	 *            文件路径
+	 * @param beanClass
+	 *            类
+	 * @return
+	 * @throws IOException
+	 * @throws BeanException
+	 *             文件不是存储文件, 或与类当前的布局不一致
+	 */
+	public static <E> BeanStore<E> open(Path path, Class<E> beanClass)
+			throws IOException {
+
+		return new BeanStore<E>(path, beanClass, false);
+	}
+
+	/**
+	 * 以只读方式打开已有的存储
+	 * 
+	 * @param path
+	 *            文件路径
+	 * @param beanClass
+	 *            类
+	 * @return
+	 * @throws IOException
+	 * @throws BeanException
+	 *             文件不是存储文件, 或与类当前的布局不一致
+	 */
+	public static <E> BeanStore<E> openReadOnly(Path path, Class<E> beanClass)
+			throws IOException {
+
+		return new BeanStore<E>(path, beanClass, true);
+	}
+
+	/**
+	 * 获取记录的布局
+	 * 
+	 * @return
+	 */
+	public BeanLayout<E> getLayout() {
+		return layout;
+	}
+
+	/**
+	 * 获取记录数
+	 * 
+	 * @return
+	 */
+	public long size() {
+		return count;
+	}
+
+	/**
+	 * 追加一条记录
+	 * 
+	 * @param bean
+	 *            对象
+	 * @return 记录的编号
+	 * @throws IOException
+	 */
+	public synchronized long append(E bean) throws IOException {
+		if (readOnly) {
+			throw new BeanException("the bean store is read-only");
+		}
+		long index = count;
+		if (index / recordsPerSegment >= segments.length) {
+			mapSegment();
+		}
+		layout.write(bean, segmentOf(index), offsetOf(index));
+		header.putLong(countOffset, index + 1);
+		count = index + 1;
+		return index;
+	}
+
+	/**
+	 * 还原记录对应的对象
+	 * 
+	 * @param index
+	 *            记录的编号
+	 * @return
+	 */
+	public E get(long index) {
+		check(index);
+		return layout.read(segmentOf(index), offsetOf(index));
+	}
+
+	/**
+	 * 将记录写回已有的对象
+	 * 
+	 * @param index
+	 *            记录的编号
+	 * @param bean
+	 *            对象
+	 */
+	public void read(long index, E bean) {
+		check(index);
+		layout.read(segmentOf(index), offsetOf(index), bean);
+	}
+
+	/**
+	 * 获取记录所在的映射缓冲区, 与 {@link #positionOf(long)} 及 {@link LayoutField}
+	 * 配合读取单个属性。只应使用绝对位置的读取方法
+	 * 
+	 * @param index
+	 *            记录的编号
+	 * @return
+	 */
+	public ByteBuffer bufferOf(long index) {
+		check(index);
+		return segmentOf(index);
+	}
+
+	/**
+	 * 获取记录在 {@link #bufferOf(long)} 中的起始位置
+	 * 
+	 * @param index
+	 *            记录的编号
+	 * @return
+	 */
+	public int positionOf(long index) {
+		check(index);
+		return offsetOf(index);
+	}
+
+	/**
+	 * 将已追加的记录刷写到磁盘
+	 */
+	public void force() {
+		for (MappedByteBuffer segment : segments) {
+			segment.force();
+		}
+		header.force();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (!readOnly) {
+			force();
+		}
+		channel.close();
+	}
+
+	private ByteBuffer segmentOf(long index) {
+		return segments[(int) (index / recordsPerSegment)];
+	}
+
+	private int offsetOf(long index) {
+		return (int) (index % recordsPerSegment) * recordSize;
+	}
+
+	private void check(long index) {
+		if (index < 0 || index >= count) {
+			throw new IndexOutOfBoundsException("record " + index
+					+ " of " + count);
+		}
+	}
+
+	/**
+	 * 映射下一段, 读写模式下文件随之扩展
+	 */
+	private void mapSegment() throws IOException {
+		long bytes = (long) recordsPerSegment * recordSize;
+		MappedByteBuffer[] current = segments;
+		long start = headerSize + current.length * bytes;
+		if (readOnly) {
+			bytes = Math.min(bytes, channel.size() - start);
+		}
+		MappedByteBuffer[] grown = Arrays.copyOf(current, current.length + 1);
+		grown[current.length] = channel.map(
+				readOnly ? FileChannel.MapMode.READ_ONLY
+						: FileChannel.MapMode.READ_WRITE, start, bytes);
+		segments = grown;
+	}
+
+	/**
+	 * 校验文件头
+	 * 
+	 * @return 文件头的长度, 即第一条记录的位置
+	 */
+	private int verify(Path path, byte[] schema) throws IOException {
+		ByteBuffer fixed = ByteBuffer.allocate(countOffset + 8);
+		readFully(fixed, 0);
+		if (fixed.getInt(0) != magic || fixed.getInt(4) != formatVersion) {
+			throw new BeanException(path + " is not a bean store");
+		}
+		int size = fixed.getInt(8);
+		ByteBuffer stored = ByteBuffer.allocate(size - countOffset - 8);
+		readFully(stored, countOffset + 8);
+		stored.flip();
+		ByteBuffer expected = ByteBuffer.wrap(schema);
+		stored.limit(Math.min(stored.limit(), schema.length));
+		if (fixed.getInt(12) != recordSize || !stored.equals(expected)) {
+			throw new BeanException("schema of " + path
+					+ " does not match the layout " + layout);
+		}
+		return size;
+	}
+
+	private void readFully(ByteBuffer buffer, long position)
+			throws IOException {
+
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new BeanException("truncated bean store header");
+			}
+		}
+	}
+
+	/**
+	 * 布局的描述: 属性个数, 以及每个属性的名称、类型与偏移
+	 */
+	private static byte[] schemaOf(BeanLayout<?> layout) {
+		List<LayoutField> fields = layout.getFields();
+		List<byte[]> parts = new ArrayList<byte[]>();
+		int length = 4;
+		for (LayoutField field : fields) {
+			byte[] name = field.getName().getBytes(StandardCharsets.UTF_8);
+			byte[] type = field.getType().getName()
+					.getBytes(StandardCharsets.UTF_8);
+			parts.add(name);
+			parts.add(type);
+			length += 2 + name.length + 2 + type.length + 4 + 4;
+			/* 枚举以序号存储, 常量的名称与顺序一并记录, 增删或调整常量视为不一致 */
+			Object[] constants = field.getType().getEnumConstants();
+			if (constants != null) {
+				for (Object constant : constants) {
+					byte[] constantName = ((Enum<?>) constant).name().getBytes(
+							StandardCharsets.UTF_8);
+					parts.add(constantName);
+					length += 2 + constantName.length;
+				}
+			}
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		buffer.putInt(fields.size());
+		int part = 0;
+		for (LayoutField field : fields) {
+			byte[] name = parts.get(part++);
+			byte[] type = parts.get(part++);
+			buffer.putShort((short) name.length).put(name);
+			buffer.putShort((short) type.length).put(type);
+			buffer.putInt(field.getOffset());
+			Object[] constants = field.getType().getEnumConstants();
+			int constantCount = constants == null ? 0 : constants.length;
+			buffer.putInt(constantCount);
+			for (int i = 0; i < constantCount; i++) {
+				byte[] constantName = parts.get(part++);
+				buffer.putShort((short) constantName.length).put(constantName);
+			}
+		}
+		return buffer.array();
+	}
+
+	private static int align(int size) {
+		return (size + 7) & ~7;
+	}
+
+}
\ No newline at end of file
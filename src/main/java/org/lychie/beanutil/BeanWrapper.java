@@ -10,12 +10,12 @@ public class BeanWrapper extends Wrapper {
 	private Object bean;
 
 	private BeanWrapper(Object bean) {
-		super(bean.getClass());
+		super(ClassWrapper.wrap(bean.getClass()));
 		this.bean = bean;
 	}
 
 	/**
-	 * 包装Bean对象
+	 * 包装Bean对象。属性表取自 {@link ClassWrapper#wrap(Class)} 的缓存
 	 * 
 	 * @param bean
 	 *            被包装的对象
@@ -37,6 +37,18 @@ public class BeanWrapper extends Wrapper {
 		this.setPropertyValue(bean, propertyName, propertyValue);
 	}
 
+	/**
+	 * 设置属性的值, 值的类型与属性的类型不符时先经 {@link Converters} 转换
+	 * 
+	 * @param propertyName
+	 *            属性名称
+	 * @param propertyValue
+	 *            属性的值
+	 */
+	public void setConvertedValue(String propertyName, Object propertyValue) {
+		this.setConvertedValue(bean, propertyName, propertyValue);
+	}
+
 	/**
 	 * 获取属性的值
 	 * 
@@ -48,4 +60,239 @@ public class BeanWrapper extends Wrapper {
 		return this.getPropertyValue(bean, propertyName);
 	}
 
+	/**
+	 * 获取属性的值, 属性不存在时返回 defaultValue 而不抛出异常
+	 * 
+	 * @param propertyName
+	 *            属性名称
+	 * @param defaultValue
+	 *            属性不存在时的返回值, 可用作区分 null 值的标记
+	 * @return
+	 */
+	public <E> E tryGet(String propertyName, E defaultValue) {
+		return this.tryGet(bean, propertyName, defaultValue);
+	}
+
+	/**
+	 * 设置属性的值, 属性不存在时返回 false 而不抛出异常
+	 * 
+	 * @param propertyName
+	 *            属性名称
+	 * @param propertyValue
+	 *            属性的值
+	 * @return 属性是否存在
+	 */
+	public boolean trySet(String propertyName, Object propertyValue) {
+		return this.trySet(bean, propertyName, propertyValue);
+	}
+
+	/**
+	 * 获取嵌套属性的值, 如 order.customer.address.zip、items[3].price
+	 * 
+	 * @param path
+	 *            属性路径
+	 * @return
+	 * @see PropertyPath
+	 */
+	public <E> E getPathValue(String path) {
+		return PropertyPath.compile(path).get(bean);
+	}
+
+	/**
+	 * 设置嵌套属性的值
+	 * 
+	 * @param path
+	 *            属性路径
+	 * @param value
+	 *            属性值
+	 * @see PropertyPath
+	 */
+	public void setPathValue(String path, Object value) {
+		PropertyPath.compile(path).set(bean, value);
+	}
+
+	/**
+	 * 获取 boolean 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param propertyName
+	 *            属性名称
+	 * @return
+	 */
+	public boolean getBoolean(String propertyName) {
+		return this.getBoolean(bean, propertyName);
+	}
+
+	/**
+	 * 设置 boolean 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param propertyName
+	 *            属性名称
+	 * @param propertyValue
+	 *            属性值
+	 */
+	public void setBoolean(String propertyName, boolean propertyValue) {
+		this.setBoolean(bean, propertyName, propertyValue);
+	}
+
+	/**
+	 * 获取 byte 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param propertyName
+	 *            属性名称
+	 * @return
+	 */
+	public byte getByte(String propertyName) {
+		return this.getByte(bean, propertyName);
+	}
+
+	/**
+	 * 设置 byte 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param propertyName
+	 *            属性名称
+	 * @param propertyValue
+	 *            属性值
+	 */
+	public void setByte(String propertyName, byte propertyValue) {
+		this.setByte(bean, propertyName, propertyValue);
+	}
+
+	/**
+	 * 获取 char 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param propertyName
+	 *            属性名称
+	 * @return
+	 */
+	public char getChar(String propertyName) {
+		return this.getChar(bean, propertyName);
+	}
+
+	/**
+	 * 设置 char 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param propertyName
+	 *            属性名称
+	 * @param propertyValue
+	 *            属性值
+	 */
+	public void setChar(String propertyName, char propertyValue) {
+		this.setChar(bean, propertyName, propertyValue);
+	}
+
+	/**
+	 * 获取 short 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param propertyName
+	 *            属性名称
+	 * @return
+	 */
+	public short getShort(String propertyName) {
+		return this.getShort(bean, propertyName);
+	}
+
+	/**
+	 * 设置 short 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param propertyName
+	 *            属性名称
+	 * @param propertyValue
+	 *            属性值
+	 */
+	public void setShort(String propertyName, short propertyValue) {
+		this.setShort(bean, propertyName, propertyValue);
+	}
+
+	/**
+	 * 获取 int 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param propertyName
+	 *            属性名称
+	 * @return
+	 */
+	public int getInt(String propertyName) {
+		return this.getInt(bean, propertyName);
+	}
+
+	/**
+	 * 设置 int 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param propertyName
+	 *            属性名称
+	 * @param propertyValue
+	 *            属性值
+	 */
+	public void setInt(String propertyName, int propertyValue) {
+		this.setInt(bean, propertyName, propertyValue);
+	}
+
+	/**
+	 * 获取 long 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param propertyName
+	 *            属性名称
+	 * @return
+	 */
+	public long getLong(String propertyName) {
+		return this.getLong(bean, propertyName);
+	}
+
+	/**
+	 * 设置 long 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param propertyName
+	 *            属性名称
+	 * @param propertyValue
+	 *            属性值
+	 */
+	public void setLong(String propertyName, long propertyValue) {
+		this.setLong(bean, propertyName, propertyValue);
+	}
+
+	/**
+	 * 获取 float 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param propertyName
+	 *            属性名称
+	 * @return
+	 */
+	public float getFloat(String propertyName) {
+		return this.getFloat(bean, propertyName);
+	}
+
+	/**
+	 * 设置 float 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param propertyName
+	 *            属性名称
+	 * @param propertyValue
+	 *            属性值
+	 */
+	public void setFloat(String propertyName, float propertyValue) {
+		this.setFloat(bean, propertyName, propertyValue);
+	}
+
+	/**
+	 * 获取 double 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param propertyName
+	 *            属性名称
+	 * @return
+	 */
+	public double getDouble(String propertyName) {
+		return this.getDouble(bean, propertyName);
+	}
+
+	/**
+	 * 设置 double 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param propertyName
+	 *            属性名称
+	 * @param propertyValue
+	 *            属性值
+	 */
+	public void setDouble(String propertyName, double propertyValue) {
+		this.setDouble(bean, propertyName, propertyValue);
+	}
+
 }
\ No newline at end of file
@@ -1,7 +1,9 @@
 package org.lychie.beanutil;
 
 import java.util.Map;
+import java.util.Collection;
 import java.lang.reflect.Field;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Bean class 包装器
@@ -10,19 +12,108 @@ import java.lang.reflect.Field;
  */
 public class ClassWrapper extends Wrapper {
 
+	/* 缓存的版本号, 每次 evictAll 递增, 旧版本的包装器会被重新创建 */
+	private static final AtomicInteger generation = new AtomicInteger();
+	/* evict 与 evictAll 都递增, 持有包装器或属性句柄的缓存据此判断是否过期 */
+	private static final AtomicInteger changes = new AtomicInteger();
+	/* 以类为键的包装器缓存, 值挂在 Class 上, 不会阻止类加载器被回收 */
+	private static final ClassValue<ClassWrapper> cache = new ClassValue<ClassWrapper>() {
+		@Override
+		protected ClassWrapper computeValue(Class<?> type) {
+			BeanMetricsListener listener = BeanMetrics.listener;
+			if (listener != null) {
+				listener.onWrapperCreated(type);
+			}
+			return new ClassWrapper(type);
+		}
+	};
+
+	private final int version;
+	private volatile BeanAccess access;
+
 	private ClassWrapper(Class<?> beanClass) {
 		super(beanClass);
+		this.version = generation.get();
 	}
 
 	/**
-	 * 包装类对象
+	 * 包装类对象。同一个类的包装器只创建一次, 之后的调用返回缓存的实例
 	 * 
 	 * @param beanClass
 	 *            被包装的类
 	 * @return ClassWrapper
 	 */
 	public static ClassWrapper wrap(Class<?> beanClass) {
-		return new ClassWrapper(beanClass);
+		BeanMetricsListener listener = BeanMetrics.listener;
+		long start = listener == null ? 0 : System.nanoTime();
+		ClassWrapper wrapper = cache.get(beanClass);
+		if (wrapper.version != generation.get()) {
+			cache.remove(beanClass);
+			wrapper = cache.get(beanClass);
+		}
+		if (listener != null) {
+			listener.onWrap(beanClass, System.nanoTime() - start);
+		}
+		return wrapper;
+	}
+
+	/**
+	 * 移除类的缓存包装器, 下次包装时重新解析属性表
+	 * 
+	 * @param beanClass
+	 *            被包装的类
+	 */
+	public static void evict(Class<?> beanClass) {
+		cache.remove(beanClass);
+		changes.incrementAndGet();
+	}
+
+	/**
+	 * 使所有缓存的包装器失效(如热部署之后), 各类在下次包装时重新解析属性表。
+	 * 同时清空 {@link PropertyPath} 的缓存, 已编译的路径也会重新解析属性
+	 */
+	public static void evictAll() {
+		generation.incrementAndGet();
+		changes.incrementAndGet();
+		PropertyPath.evictAll();
+	}
+
+	/**
+	 * 获取缓存的版本号, 持有属性句柄的缓存据此判断句柄是否过期。移除单个类的包装器也会使版本号改变
+	 * 
+	 * @return
+	 */
+	static int generation() {
+		return changes.get();
+	}
+
+	/**
+	 * 设置创建属性访问器的工厂, 并使所有缓存的包装器失效
+	 * 
+	 * @param factory
+	 *            访问器工厂, 默认为 {@link MethodHandleAccessorFactory}
+	 */
+	public static void setAccessorFactory(AccessorFactory factory) {
+		if (factory == null) {
+			throw new NullPointerException(
+					"the argument factory can not be null");
+		}
+		accessorFactory = factory;
+		evictAll();
+	}
+
+	/**
+	 * 设置是否延迟解析属性表, 并使所有缓存的包装器失效。<br>
+	 * 延迟模式下, 包装类时只在首次访问属性时登记字段名称, 属性在第一次被访问时才设置可访问并创建访问器,
+	 * 需要完整属性表时(如 {@link #getProperties()}、{@link #compiled()})再补齐其余属性。
+	 * 适用于属性很多而实际只用到少数属性的类
+	 * 
+	 * @param lazy
+	 *            是否延迟解析, 默认为 false
+	 */
+	public static void setLazyMetadata(boolean lazy) {
+		lazyMetadata = lazy;
+		evictAll();
 	}
 
 	/**
@@ -41,6 +132,23 @@ public class ClassWrapper extends Wrapper {
 		super.setPropertyValue(bean, propertyName, propertyValue);
 	}
 
+	/**
+	 * 设置属性的值, 值的类型与属性的类型不符时先经 {@link Converters} 转换,
+	 * 如将 "42" 设置到 int 类型的属性
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @param propertyValue
+	 *            属性值
+	 */
+	public void setConvertedValue(Object bean, String propertyName,
+			Object propertyValue) {
+
+		super.setConvertedValue(bean, propertyName, propertyValue);
+	}
+
 	/**
 	 * 获取属性的值
 	 * 
@@ -55,12 +163,327 @@ public class ClassWrapper extends Wrapper {
 	}
 
 	/**
-	 * 获取包装的类的属性
+	 * 获取属性的值, 属性不存在时返回 defaultValue 而不抛出异常
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @param defaultValue
+	 *            属性不存在时的返回值, 可用作区分 null 值的标记
+	 * @return
+	 */
+	public <E> E tryGet(Object bean, String propertyName, E defaultValue) {
+		return super.tryGet(bean, propertyName, defaultValue);
+	}
+
+	/**
+	 * 设置属性的值, 属性不存在时返回 false 而不抛出异常
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @param propertyValue
+	 *            属性值
+	 * @return 属性是否存在
+	 */
+	public boolean trySet(Object bean, String propertyName,
+			Object propertyValue) {
+
+		return super.trySet(bean, propertyName, propertyValue);
+	}
+
+	/**
+	 * 获取 boolean 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @return
+	 */
+	public boolean getBoolean(Object bean, String propertyName) {
+		return super.getBoolean(bean, propertyName);
+	}
+
+	/**
+	 * 设置 boolean 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @param propertyValue
+	 *            属性值
+	 */
+	public void setBoolean(Object bean, String propertyName, boolean propertyValue) {
+		super.setBoolean(bean, propertyName, propertyValue);
+	}
+
+	/**
+	 * 获取 byte 类型属性的值, 不产生装箱对象
 	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
 	 * @return
 	 */
+	public byte getByte(Object bean, String propertyName) {
+		return super.getByte(bean, propertyName);
+	}
+
+	/**
+	 * 设置 byte 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @param propertyValue
+	 *            属性值
+	 */
+	public void setByte(Object bean, String propertyName, byte propertyValue) {
+		super.setByte(bean, propertyName, propertyValue);
+	}
+
+	/**
+	 * 获取 char 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @return
+	 */
+	public char getChar(Object bean, String propertyName) {
+		return super.getChar(bean, propertyName);
+	}
+
+	/**
+	 * 设置 char 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @param propertyValue
+	 *            属性值
+	 */
+	public void setChar(Object bean, String propertyName, char propertyValue) {
+		super.setChar(bean, propertyName, propertyValue);
+	}
+
+	/**
+	 * 获取 short 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @return
+	 */
+	public short getShort(Object bean, String propertyName) {
+		return super.getShort(bean, propertyName);
+	}
+
+	/**
+	 * 设置 short 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @param propertyValue
+	 *            属性值
+	 */
+	public void setShort(Object bean, String propertyName, short propertyValue) {
+		super.setShort(bean, propertyName, propertyValue);
+	}
+
+	/**
+	 * 获取 int 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @return
+	 */
+	public int getInt(Object bean, String propertyName) {
+		return super.getInt(bean, propertyName);
+	}
+
+	/**
+	 * 设置 int 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @param propertyValue
+	 *            属性值
+	 */
+	public void setInt(Object bean, String propertyName, int propertyValue) {
+		super.setInt(bean, propertyName, propertyValue);
+	}
+
+	/**
+	 * 获取 long 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @return
+	 */
+	public long getLong(Object bean, String propertyName) {
+		return super.getLong(bean, propertyName);
+	}
+
+	/**
+	 * 设置 long 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @param propertyValue
+	 *            属性值
+	 */
+	public void setLong(Object bean, String propertyName, long propertyValue) {
+		super.setLong(bean, propertyName, propertyValue);
+	}
+
+	/**
+	 * 获取 float 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @return
+	 */
+	public float getFloat(Object bean, String propertyName) {
+		return super.getFloat(bean, propertyName);
+	}
+
+	/**
+	 * 设置 float 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @param propertyValue
+	 *            属性值
+	 */
+	public void setFloat(Object bean, String propertyName, float propertyValue) {
+		super.setFloat(bean, propertyName, propertyValue);
+	}
+
+	/**
+	 * 获取 double 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @return
+	 */
+	public double getDouble(Object bean, String propertyName) {
+		return super.getDouble(bean, propertyName);
+	}
+
+	/**
+	 * 设置 double 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @param propertyValue
+	 *            属性值
+	 */
+	public void setDouble(Object bean, String propertyName, double propertyValue) {
+		super.setDouble(bean, propertyName, propertyValue);
+	}
+
+	/**
+	 * 通过无参构造方法创建被包装类的实例
+	 * 
+	 * @return
+	 * @see BeanClass#getFactory(Class)
+	 */
+	@SuppressWarnings("unchecked")
+	public <E> E newInstance() {
+		return (E) BeanClass.getFactory(beanClass).get();
+	}
+
+	/**
+	 * 解析属性句柄。在循环中反复读写同一属性时, 应先解析句柄, 再通过句柄读写
+	 * 
+	 * @param propertyName
+	 *            属性名称
+	 * @return
+	 */
+	public PropertyHandle property(String propertyName) {
+		return handleOf(propertyName);
+	}
+
+	/**
+	 * 查找属性句柄, 属性不存在时返回 null 而不抛出异常
+	 * 
+	 * @param propertyName
+	 *            属性名称
+	 * @return
+	 */
+	public PropertyHandle findProperty(String propertyName) {
+		return table.find(propertyName);
+	}
+
+	/**
+	 * 获取所有属性的句柄, 按索引排列
+	 * 
+	 * @return 不可修改的集合
+	 */
+	public Collection<PropertyHandle> getPropertyHandles() {
+		return table.handles().values();
+	}
+
+	/**
+	 * 获取按索引访问属性的访问器, 首次调用时在运行期为类生成访问器类。
+	 * 不允许定义类时, 回退到基于属性访问器的实现
+	 * 
+	 * @return
+	 */
+	public BeanAccess compiled() {
+		BeanAccess result = access;
+		if (result == null) {
+			synchronized (this) {
+				result = access;
+				if (result == null) {
+					PropertyHandle[] handles = table.all();
+					PropertyAccessor[] array = new PropertyAccessor[handles.length];
+					for (PropertyHandle handle : handles) {
+						array[handle.getIndex()] = handle.getAccessor();
+					}
+					access = result = BeanAccessGenerator.generate(beanClass,
+							array);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 获取包装的类的属性
+	 * 
+	 * @return 不可修改的属性表
+	 */
 	public Map<String, Field> getProperties() {
-		return properties;
+		return table.fields();
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,112 @@
+package org.lychie.beanutil;
+
+import java.util.Map;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * 一次深复制的上下文。按对象的同一性记录已复制的对象, 同一个对象在对象图中无论被引用多少次都只复制一次,
+ * 循环引用与共享引用在副本中保持相同的结构。<br>
+ * 复制不递归进行: 对象先被创建, 其属性或元素的复制作为步骤压入显式的栈, 因此很深的对象图(如很长的链表)
+ * 不会耗尽调用栈。复制过程中 {@link #clone(Object)} 返回的副本可能尚未填充, 在最外层的复制返回前全部完成
+ * 
+ * @author Lychie Fan
+ */
+public final class CloneContext {
+
+	private final Map<Object, Object> copies = new IdentityHashMap<Object, Object>();
+	/* 待执行的步骤, 每个步骤占三个位置: 步骤、参数 a、参数 b */
+	private Object[] stack = new Object[48];
+	private int size;
+	private boolean running;
+
+	CloneContext() {
+	}
+
+	/**
+	 * 深复制对象
+	 * 
+	 * @param value
+	 *            对象, 可以为 null
+	 * @return 不可变类型的对象原样返回, 已复制过的对象返回同一个副本
+	 */
+	@SuppressWarnings("unchecked")
+	public <E> E clone(E value) {
+		if (value == null) {
+			return null;
+		}
+		BeanCloner.Plan plan = BeanCloner.planOf(value.getClass());
+		if (plan.shared) {
+			return value;
+		}
+		Object copy = copies.get(value);
+		if (copy != null) {
+			return (E) copy;
+		}
+		if (running) {
+			return (E) copyOf(value, plan);
+		}
+		running = true;
+		try {
+			copy = copyOf(value, plan);
+			while (size > 0) {
+				size -= 3;
+				Step step = (Step) stack[size];
+				Object a = stack[size + 1];
+				Object b = stack[size + 2];
+				stack[size] = stack[size + 1] = stack[size + 2] = null;
+				step.run(a, b, this);
+			}
+			return (E) copy;
+		} finally {
+			running = false;
+			if (size > 0) {
+				Arrays.fill(stack, 0, size, null);
+				size = 0;
+			}
+		}
+	}
+
+	/**
+	 * 登记对象的副本, 之后对同一个对象的复制都返回该副本
+	 * 
+	 * @param source
+	 *            被复制的对象
+	 * @param copy
+	 *            副本
+	 */
+	public void remember(Object source, Object copy) {
+		copies.put(source, copy);
+	}
+
+	/**
+	 * 压入一个稍后执行的步骤
+	 */
+	void schedule(Step step, Object a, Object b) {
+		if (size + 3 > stack.length) {
+			stack = Arrays.copyOf(stack, stack.length * 2);
+		}
+		stack[size++] = step;
+		stack[size++] = a;
+		stack[size++] = b;
+	}
+
+	private Object copyOf(Object value, BeanCloner.Plan plan) {
+		Object copy = plan.allocate(value, this);
+		remember(value, copy);
+		if (plan.filling) {
+			schedule(plan, value, copy);
+		}
+		return copy;
+	}
+
+	/**
+	 * 复制中的一个步骤
+	 */
+	abstract static class Step {
+
+		abstract void run(Object a, Object b, CloneContext context);
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package org.lychie.beanutil;
+
+/**
+ * 深复制的策略, 通过 {@link BeanCloner#register(Class, CloneStrategy)} 为类及其子类登记
+ * 
+ * @param <E>
+ *            类
+ * @author Lychie Fan
+ */
+public interface CloneStrategy<E> {
+
+	/**
+	 * 复制对象。对象可能被循环引用时, 应在复制其引用的对象之前调用
+	 * {@link CloneContext#remember(Object, Object)} 登记副本
+	 * 
+	 * @param source
+	 *            被复制的对象, 不为 null
+	 * @param context
+	 *            本次深复制的上下文, 用于复制引用的对象
+	 * @return 副本, 返回 source 表示共享而不复制
+	 */
+	E clone(E source, CloneContext context);
+
+}
\ No newline at end of file
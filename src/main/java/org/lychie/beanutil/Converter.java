@@ -0,0 +1,23 @@
+package org.lychie.beanutil;
+
+/**
+ * 类型转换器, 通过 {@link Converters#register(Class, Class, Converter)} 登记
+ * 
+ * @param <S>
+ *            源类型
+ * @param <T>
+ *            目标类型
+ * @author Lychie Fan
+ */
+public interface Converter<S, T> {
+
+	/**
+	 * 转换值
+	 * 
+	 * @param source
+	 *            源值, 不为 null
+	 * @return
+	 */
+	T convert(S source);
+
+}
\ No newline at end of file
@@ -0,0 +1,545 @@
+package org.lychie.beanutil;
+
+import java.util.Date;
+import java.util.List;
+import java.util.ArrayList;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Year;
+import java.time.Period;
+import java.time.Instant;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.time.OffsetDateTime;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.lychie.beanutil.exception.BeanException;
+
+/**
+ * 类型转换器的登记表。<br>
+ * 内置基本类型及其包装类型、String、枚举、BigDecimal/BigInteger 与 java.time 常用类型之间的转换,
+ * 登记相同的源类型与目标类型可以覆盖内置的转换器。查找时先匹配源类型, 再沿源类型的超类与接口匹配;
+ * 查找结果按 (源类型, 目标类型) 缓存, 登记新的转换器后缓存失效
+ * 
+ * @author Lychie Fan
+ */
+public final class Converters {
+
+	private static final Object missing = new Object();
+	private static final AtomicInteger generation = new AtomicInteger();
+	/* 目标类型 -> (源类型 -> 转换器) */
+	private static final ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, Converter<?, ?>>> registry = new ConcurrentHashMap<Class<?>, ConcurrentMap<Class<?>, Converter<?, ?>>>();
+	private static final ClassValue<ConverterCache> cache = new ClassValue<ConverterCache>() {
+
+		@Override
+		protected ConverterCache computeValue(Class<?> type) {
+			return new ConverterCache();
+		}
+
+	};
+	private static final Converter<Object, Object> identity = new Converter<Object, Object>() {
+
+		@Override
+		public Object convert(Object source) {
+			return source;
+		}
+
+	};
+	private static final Converter<Object, String> toString = new Converter<Object, String>() {
+
+		@Override
+		public String convert(Object source) {
+			return source.toString();
+		}
+
+	};
+
+	static {
+		registerDefaults();
+	}
+
+	private Converters() {
+	}
+
+	/**
+	 * 登记转换器, 覆盖相同源类型与目标类型的转换器
+	 * 
+	 * @param sourceType
+	 *            源类型
+	 * @param targetType
+	 *            目标类型, 基本类型等同于其包装类型
+	 * @param converter
+	 *            转换器
+	 */
+	public static <S, T> void register(Class<S> sourceType,
+			Class<T> targetType, Converter<? super S, ? extends T> converter) {
+
+		if (sourceType == null) {
+			throw new NullPointerException(
+					"the argument sourceType can not be null");
+		}
+		if (targetType == null) {
+			throw new NullPointerException(
+					"the argument targetType can not be null");
+		}
+		if (converter == null) {
+			throw new NullPointerException(
+					"the argument converter can not be null");
+		}
+		Class<?> target = BeanClass.getWrapperClass(targetType);
+		ConcurrentMap<Class<?>, Converter<?, ?>> converters = registry
+				.get(target);
+		if (converters == null) {
+			converters = new ConcurrentHashMap<Class<?>, Converter<?, ?>>();
+			ConcurrentMap<Class<?>, Converter<?, ?>> previous = registry
+					.putIfAbsent(target, converters);
+			if (previous != null) {
+				converters = previous;
+			}
+		}
+		converters.put(BeanClass.getWrapperClass(sourceType), converter);
+		generation.incrementAndGet();
+	}
+
+	/**
+	 * 查找转换器
+	 * 
+	 * @param sourceType
+	 *            源类型
+	 * @param targetType
+	 *            目标类型
+	 * @return 源类型可以直接赋值给目标类型时返回原样返回的转换器, 找不到时返回 null
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> Converter<Object, T> lookup(Class<?> sourceType,
+			Class<T> targetType) {
+
+		ConverterCache converters = cache.get(sourceType);
+		if (converters.version != generation.get()) {
+			cache.remove(sourceType);
+			converters = cache.get(sourceType);
+		}
+		Object converter = converters.get(targetType);
+		if (converter == null) {
+			converter = resolve(BeanClass.getWrapperClass(sourceType),
+					BeanClass.getWrapperClass(targetType));
+			converters.put(targetType, converter == null ? missing
+					: converter);
+		}
+		return converter == missing ? null : (Converter<Object, T>) converter;
+	}
+
+	/**
+	 * 转换值
+	 * 
+	 * @param value
+	 *            值
+	 * @param targetType
+	 *            目标类型
+	 * @return value 为 null 时返回 null
+	 * @throws BeanException
+	 *             找不到转换器或转换失败
+	 */
+	public static <T> T convert(Object value, Class<T> targetType) {
+		if (targetType == null) {
+			throw new NullPointerException(
+					"the argument targetType can not be null");
+		}
+		if (value == null) {
+			return null;
+		}
+		Converter<Object, T> converter = lookup(value.getClass(), targetType);
+		if (converter == null) {
+			throw new BeanException("no converter from "
+					+ value.getClass().getName() + " to "
+					+ targetType.getName());
+		}
+		try {
+			return converter.convert(value);
+		} catch (BeanException e) {
+			throw e;
+		} catch (RuntimeException e) {
+			throw new BeanException("can not convert " + value + " to "
+					+ targetType.getName() + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * 查找转换器: 可直接赋值、登记的转换器(沿源类型的继承链)、String 到枚举、任意类型到 String
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static Converter<?, ?> resolve(Class<?> source,
+			final Class<?> target) {
+
+		if (target.isAssignableFrom(source)) {
+			return identity;
+		}
+		ConcurrentMap<Class<?>, Converter<?, ?>> converters = registry
+				.get(target);
+		if (converters != null) {
+			for (Class<?> type : hierarchyOf(source)) {
+				Converter<?, ?> converter = converters.get(type);
+				if (converter != null) {
+					return converter;
+				}
+			}
+		}
+		if (target.isEnum() && source == String.class) {
+			return new Converter<String, Enum>() {
+
+				@Override
+				public Enum convert(String source) {
+					return Enum.valueOf((Class<Enum>) target, source.trim());
+				}
+
+			};
+		}
+		if (target == String.class) {
+			return toString;
+		}
+		return null;
+	}
+
+	/**
+	 * 类、超类及其实现的接口, 近者在前
+	 */
+	private static List<Class<?>> hierarchyOf(Class<?> type) {
+		TypeHierarchy hierarchy = BeanClass.getHierarchy(type);
+		List<Class<?>> list = new ArrayList<Class<?>>(hierarchy
+				.getSuperclasses().size() + hierarchy.getInterfaces().size() + 1);
+		list.add(type);
+		list.addAll(hierarchy.getSuperclasses());
+		list.addAll(hierarchy.getInterfaces());
+		return list;
+	}
+
+	/**
+	 * 转换为整数并检查范围, 小数部分被截断
+	 */
+	private static long checkRange(Number value, long min, long max) {
+		BigInteger big = value instanceof BigInteger ? (BigInteger) value
+				: value instanceof BigDecimal ? ((BigDecimal) value)
+						.toBigInteger() : null;
+		if (value instanceof Double || value instanceof Float) {
+			/* longValue() 对超出范围的值取饱和值, NaN 取 0, 需在截断前比较 */
+			double d = value.doubleValue();
+			double truncated = d < 0 ? Math.ceil(d) : Math.floor(d);
+			if (Double.isNaN(d) || Double.isInfinite(d) || truncated < min
+					|| truncated >= (double) max + 1) {
+				throw new ArithmeticException(value + " is out of range");
+			}
+		}
+		long result = value.longValue();
+		if (big != null && big.bitLength() > 63 || result < min
+				|| result > max) {
+			throw new ArithmeticException(value + " is out of range");
+		}
+		return result;
+	}
+
+	@SuppressWarnings("rawtypes")
+	private static void registerDefaults() {
+		register(String.class, Boolean.class, new Converter<String, Boolean>() {
+
+			@Override
+			public Boolean convert(String source) {
+				String text = source.trim();
+				if (text.equalsIgnoreCase("true")) {
+					return Boolean.TRUE;
+				}
+				if (text.equalsIgnoreCase("false")) {
+					return Boolean.FALSE;
+				}
+				throw new IllegalArgumentException("not a boolean");
+			}
+
+		});
+		register(String.class, Character.class,
+				new Converter<String, Character>() {
+
+					@Override
+					public Character convert(String source) {
+						if (source.length() != 1) {
+							throw new IllegalArgumentException(
+									"not a single character");
+						}
+						return source.charAt(0);
+					}
+
+				});
+		register(String.class, Byte.class, new Converter<String, Byte>() {
+
+			@Override
+			public Byte convert(String source) {
+				return Byte.valueOf(source.trim());
+			}
+
+		});
+		register(String.class, Short.class, new Converter<String, Short>() {
+
+			@Override
+			public Short convert(String source) {
+				return Short.valueOf(source.trim());
+			}
+
+		});
+		register(String.class, Integer.class, new Converter<String, Integer>() {
+
+			@Override
+			public Integer convert(String source) {
+				return Integer.valueOf(source.trim());
+			}
+
+		});
+		register(String.class, Long.class, new Converter<String, Long>() {
+
+			@Override
+			public Long convert(String source) {
+				return Long.valueOf(source.trim());
+			}
+
+		});
+		register(String.class, Float.class, new Converter<String, Float>() {
+
+			@Override
+			public Float convert(String source) {
+				return Float.valueOf(source.trim());
+			}
+
+		});
+		register(String.class, Double.class, new Converter<String, Double>() {
+
+			@Override
+			public Double convert(String source) {
+				return Double.valueOf(source.trim());
+			}
+
+		});
+		register(String.class, BigInteger.class,
+				new Converter<String, BigInteger>() {
+
+					@Override
+					public BigInteger convert(String source) {
+						return new BigInteger(source.trim());
+					}
+
+				});
+		register(String.class, BigDecimal.class,
+				new Converter<String, BigDecimal>() {
+
+					@Override
+					public BigDecimal convert(String source) {
+						return new BigDecimal(source.trim());
+					}
+
+				});
+		register(Number.class, Byte.class, new Converter<Number, Byte>() {
+
+			@Override
+			public Byte convert(Number source) {
+				return (byte) checkRange(source, Byte.MIN_VALUE, Byte.MAX_VALUE);
+			}
+
+		});
+		register(Number.class, Short.class, new Converter<Number, Short>() {
+
+			@Override
+			public Short convert(Number source) {
+				return (short) checkRange(source, Short.MIN_VALUE,
+						Short.MAX_VALUE);
+			}
+
+		});
+		register(Number.class, Integer.class, new Converter<Number, Integer>() {
+
+			@Override
+			public Integer convert(Number source) {
+				return (int) checkRange(source, Integer.MIN_VALUE,
+						Integer.MAX_VALUE);
+			}
+
+		});
+		register(Number.class, Long.class, new Converter<Number, Long>() {
+
+			@Override
+			public Long convert(Number source) {
+				return checkRange(source, Long.MIN_VALUE, Long.MAX_VALUE);
+			}
+
+		});
+		register(Number.class, Float.class, new Converter<Number, Float>() {
+
+			@Override
+			public Float convert(Number source) {
+				return source.floatValue();
+			}
+
+		});
+		register(Number.class, Double.class, new Converter<Number, Double>() {
+
+			@Override
+			public Double convert(Number source) {
+				return source.doubleValue();
+			}
+
+		});
+		register(Number.class, BigInteger.class,
+				new Converter<Number, BigInteger>() {
+
+					@Override
+					public BigInteger convert(Number source) {
+						if (source instanceof BigDecimal) {
+							return ((BigDecimal) source).toBigInteger();
+						}
+						return BigInteger.valueOf(source.longValue());
+					}
+
+				});
+		register(Number.class, BigDecimal.class,
+				new Converter<Number, BigDecimal>() {
+
+					@Override
+					public BigDecimal convert(Number source) {
+						if (source instanceof BigInteger) {
+							return new BigDecimal((BigInteger) source);
+						}
+						if (source instanceof Integer || source instanceof Long
+								|| source instanceof Short
+								|| source instanceof Byte) {
+							return BigDecimal.valueOf(source.longValue());
+						}
+						return new BigDecimal(source.toString());
+					}
+
+				});
+		register(Enum.class, String.class, new Converter<Enum, String>() {
+
+			@Override
+			public String convert(Enum source) {
+				return source.name();
+			}
+
+		});
+		register(String.class, LocalDate.class,
+				new Converter<String, LocalDate>() {
+
+					@Override
+					public LocalDate convert(String source) {
+						return LocalDate.parse(source.trim());
+					}
+
+				});
+		register(String.class, LocalTime.class,
+				new Converter<String, LocalTime>() {
+
+					@Override
+					public LocalTime convert(String source) {
+						return LocalTime.parse(source.trim());
+					}
+
+				});
+		register(String.class, LocalDateTime.class,
+				new Converter<String, LocalDateTime>() {
+
+					@Override
+					public LocalDateTime convert(String source) {
+						return LocalDateTime.parse(source.trim());
+					}
+
+				});
+		register(String.class, OffsetDateTime.class,
+				new Converter<String, OffsetDateTime>() {
+
+					@Override
+					public OffsetDateTime convert(String source) {
+						return OffsetDateTime.parse(source.trim());
+					}
+
+				});
+		register(String.class, ZonedDateTime.class,
+				new Converter<String, ZonedDateTime>() {
+
+					@Override
+					public ZonedDateTime convert(String source) {
+						return ZonedDateTime.parse(source.trim());
+					}
+
+				});
+		register(String.class, Instant.class, new Converter<String, Instant>() {
+
+			@Override
+			public Instant convert(String source) {
+				return Instant.parse(source.trim());
+			}
+
+		});
+		register(String.class, Duration.class,
+				new Converter<String, Duration>() {
+
+					@Override
+					public Duration convert(String source) {
+						return Duration.parse(source.trim());
+					}
+
+				});
+		register(String.class, Period.class, new Converter<String, Period>() {
+
+			@Override
+			public Period convert(String source) {
+				return Period.parse(source.trim());
+			}
+
+		});
+		register(String.class, Year.class, new Converter<String, Year>() {
+
+			@Override
+			public Year convert(String source) {
+				return Year.parse(source.trim());
+			}
+
+		});
+		register(String.class, YearMonth.class,
+				new Converter<String, YearMonth>() {
+
+					@Override
+					public YearMonth convert(String source) {
+						return YearMonth.parse(source.trim());
+					}
+
+				});
+		register(Date.class, Instant.class, new Converter<Date, Instant>() {
+
+			@Override
+			public Instant convert(Date source) {
+				return source.toInstant();
+			}
+
+		});
+		register(Instant.class, Date.class, new Converter<Instant, Date>() {
+
+			@Override
+			public Date convert(Instant source) {
+				return Date.from(source);
+			}
+
+		});
+	}
+
+	/**
+	 * 单个源类型的转换器缓存, 键为目标类型, 值为转换器或查找失败的标记
+	 */
+	private static final class ConverterCache extends
+			ConcurrentHashMap<Class<?>, Object> {
+
+		private static final long serialVersionUID = 2713826155904216473L;
+
+		private final int version = generation.get();
+
+	}
+
+}
\ No newline at end of file
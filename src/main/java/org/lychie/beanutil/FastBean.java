@@ -0,0 +1,24 @@
+package org.lychie.beanutil;
+
+import java.lang.annotation.Target;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * 标注需要在编译期生成属性访问器的类。<br>
+ * 编译时由 beanutil-processor 模块中的 FastBeanProcessor 在类所在的包中生成名为 类名$$FastBean 的
+ * {@link FastBeanProvider}, {@link ClassWrapper#wrap(Class)} 按名称加载并自动使用生成的访问器,
+ * 不在运行期创建方法句柄或生成字节码。<br>
+ * 非私有的属性直接读写; 私有的属性通过同名的 getter/setter 读写, 两者缺一时编译器给出警告,
+ * 该属性在运行期回退到反射访问; final 属性总是回退到反射访问
+ * 
+ * @author Lychie Fan
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface FastBean {
+
+}
\ No newline at end of file
@@ -0,0 +1,20 @@
+package org.lychie.beanutil;
+
+/**
+ * 编译期生成的属性访问器工厂, 一个实现对应一个标注了 {@link FastBean} 的类,
+ * 类名为 类名$$FastBean, 须有公共无参构造方法。<br>
+ * 与 {@link AccessorFactory} 不同, 生成的访问器不依赖属性的可访问性, 直接读写属性,
+ * 或调用属性的 getter/setter
+ * 
+ * @author Lychie Fan
+ */
+public interface FastBeanProvider extends AccessorFactory {
+
+	/**
+	 * 获取访问器所属的类
+	 * 
+	 * @return
+	 */
+	Class<?> getBeanClass();
+
+}
\ No newline at end of file
@@ -0,0 +1,67 @@
+package org.lychie.beanutil;
+
+/**
+ * 编译期生成的访问器的登记表。只为标注了 {@link FastBean} 的类按名称加载
+ * 类名$$FastBean, 不遍历 META-INF/services, 查找结果缓存在类上
+ * 
+ * @author Lychie Fan
+ */
+final class FastBeanRegistry {
+
+	/* 与 FastBeanProcessor 生成的类名后缀一致 */
+	private static final String suffix = "$$FastBean";
+
+	private static final ClassValue<FastBeanProvider> providers = new ClassValue<FastBeanProvider>() {
+
+		@Override
+		protected FastBeanProvider computeValue(Class<?> type) {
+			ClassLoader loader = type.getClassLoader();
+			if (loader == null || !type.isAnnotationPresent(FastBean.class)) {
+				return null;
+			}
+			return load(type, loader);
+		}
+
+	};
+
+	private FastBeanRegistry() {
+	}
+
+	/**
+	 * 获取类的访问器工厂
+	 * 
+	 * @param beanClass
+	 *            类
+	 * @return 类没有标注 {@link FastBean} 或未经注解处理器编译时返回 null
+	 */
+	static FastBeanProvider providerOf(Class<?> beanClass) {
+		return providers.get(beanClass);
+	}
+
+	/**
+	 * 加载类的访问器工厂, 不存在或无法实例化时返回 null
+	 * 
+	 * @param beanClass
+	 *            类
+	 * @param loader
+	 *            类的加载器
+	 * @return
+	 */
+	private static FastBeanProvider load(Class<?> beanClass, ClassLoader loader) {
+		try {
+			Class<?> type = Class.forName(beanClass.getName() + suffix, true,
+					loader);
+			if (!FastBeanProvider.class.isAssignableFrom(type)) {
+				return null;
+			}
+			FastBeanProvider provider = (FastBeanProvider) type
+					.getConstructor().newInstance();
+			return provider.getBeanClass() == beanClass ? provider : null;
+		} catch (ReflectiveOperationException e) {
+			return null;
+		} catch (LinkageError e) {
+			return null;
+		}
+	}
+
+}
\ No newline at end of file
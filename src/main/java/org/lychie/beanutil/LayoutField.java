@@ -0,0 +1,441 @@
+package org.lychie.beanutil;
+
+import java.nio.ByteBuffer;
+import org.lychie.beanutil.exception.BeanException;
+
+/**
+ * {@link BeanLayout} 中的一个属性, 位于记录内的固定偏移处。<br>
+ * 可以直接从缓冲区中读写单个属性(享元访问), 不必还原出整个对象。
+ * 所有方法都使用绝对位置, 不改变缓冲区的 position; 包装类型的属性为 null 时, 基本类型的读取方法返回 0
+ * 
+ * @author Lychie Fan
+ */
+public final class LayoutField {
+
+	static final int BOOLEAN = 0;
+	static final int BYTE = 1;
+	static final int CHAR = 2;
+	static final int SHORT = 3;
+	static final int INT = 4;
+	static final int LONG = 5;
+	static final int FLOAT = 6;
+	static final int DOUBLE = 7;
+	static final int ENUM = 8;
+
+	private final PropertyHandle handle;
+	private final int kind;
+	private final int offset;
+	/* 包装类型在空值位图中的位置, 基本类型为 -1 */
+	private final int nullBit;
+	private final int bitmapOffset;
+	private final Object[] constants;
+
+	LayoutField(PropertyHandle handle, int kind, int offset, int nullBit,
+			int bitmapOffset) {
+
+		this.handle = handle;
+		this.kind = kind;
+		this.offset = offset;
+		this.nullBit = nullBit;
+		this.bitmapOffset = bitmapOffset;
+		this.constants = kind == ENUM ? handle.getType().getEnumConstants()
+				: null;
+	}
+
+	/**
+	 * 按类型获取编码方式
+	 * 
+	 * @param type
+	 *            属性的类型
+	 * @return 不支持的类型返回 -1
+	 */
+	static int kindOf(Class<?> type) {
+		Class<?> primitive = type.isPrimitive() ? type : BeanClass
+				.getPrimitiveClass(type);
+		if (primitive == boolean.class) {
+			return BOOLEAN;
+		}
+		if (primitive == byte.class) {
+			return BYTE;
+		}
+		if (primitive == char.class) {
+			return CHAR;
+		}
+		if (primitive == short.class) {
+			return SHORT;
+		}
+		if (primitive == int.class) {
+			return INT;
+		}
+		if (primitive == long.class) {
+			return LONG;
+		}
+		if (primitive == float.class) {
+			return FLOAT;
+		}
+		if (primitive == double.class) {
+			return DOUBLE;
+		}
+		return type.isEnum() ? ENUM : -1;
+	}
+
+	/**
+	 * 编码占用的字节数
+	 */
+	static int sizeOf(int kind) {
+		switch (kind) {
+		case BOOLEAN:
+		case BYTE:
+			return 1;
+		case CHAR:
+		case SHORT:
+			return 2;
+		case LONG:
+		case DOUBLE:
+			return 8;
+		default:
+			return 4;
+		}
+	}
+
+	/**
+	 * 获取属性名称
+	 * 
+	 * @return
+	 */
+	public String getName() {
+		return handle.getName();
+	}
+
+	/**
+	 * 获取属性的类型
+	 * 
+	 * @return
+	 */
+	public Class<?> getType() {
+		return handle.getType();
+	}
+
+	/**
+	 * 获取属性在记录内的偏移
+	 * 
+	 * @return
+	 */
+	public int getOffset() {
+		return offset;
+	}
+
+	/**
+	 * 属性的值是否为 null。基本类型总是返回 false
+	 * 
+	 * @param buffer
+	 *            缓冲区
+	 * @param record
+	 *            记录在缓冲区中的起始位置
+	 * @return
+	 */
+	public boolean isNull(ByteBuffer buffer, int record) {
+		if (kind == ENUM) {
+			return buffer.getInt(record + offset) == 0;
+		}
+		return nullBit >= 0
+				&& (buffer.get(record + bitmapOffset + (nullBit >> 3)) & 1 << (nullBit & 7)) == 0;
+	}
+
+	/**
+	 * 读取属性的值, 基本类型被装箱
+	 * 
+	 * @param buffer
+	 *            缓冲区
+	 * @param record
+	 *            记录在缓冲区中的起始位置
+	 * @return
+	 */
+	public Object get(ByteBuffer buffer, int record) {
+		if (isNull(buffer, record)) {
+			return null;
+		}
+		int position = record + offset;
+		switch (kind) {
+		case BOOLEAN:
+			return buffer.get(position) != 0;
+		case BYTE:
+			return buffer.get(position);
+		case CHAR:
+			return buffer.getChar(position);
+		case SHORT:
+			return buffer.getShort(position);
+		case INT:
+			return buffer.getInt(position);
+		case LONG:
+			return buffer.getLong(position);
+		case FLOAT:
+			return buffer.getFloat(position);
+		case DOUBLE:
+			return buffer.getDouble(position);
+		default:
+			return constants[buffer.getInt(position) - 1];
+		}
+	}
+
+	/**
+	 * 写入属性的值
+	 * 
+	 * @param buffer
+	 *            缓冲区
+	 * @param record
+	 *            记录在缓冲区中的起始位置
+	 * @param value
+	 *            属性值, 基本类型的属性不接受 null
+	 */
+	public void set(ByteBuffer buffer, int record, Object value) {
+		int position = record + offset;
+		if (kind == ENUM) {
+			buffer.putInt(position, value == null ? 0 : ((Enum<?>) value)
+					.ordinal() + 1);
+			return;
+		}
+		if (value == null) {
+			if (nullBit < 0) {
+				throw new BeanException(getName()
+						+ " property of primitive type can not be null");
+			}
+			/* 值的字节清零, 基本类型的读取方法对 null 返回 0 */
+			for (int i = sizeOf(kind) - 1; i >= 0; i--) {
+				buffer.put(position + i, (byte) 0);
+			}
+			markNull(buffer, record, true);
+			return;
+		}
+		switch (kind) {
+		case BOOLEAN:
+			buffer.put(position, (byte) ((Boolean) value ? 1 : 0));
+			break;
+		case BYTE:
+			buffer.put(position, (Byte) value);
+			break;
+		case CHAR:
+			buffer.putChar(position, (Character) value);
+			break;
+		case SHORT:
+			buffer.putShort(position, (Short) value);
+			break;
+		case INT:
+			buffer.putInt(position, (Integer) value);
+			break;
+		case LONG:
+			buffer.putLong(position, (Long) value);
+			break;
+		case FLOAT:
+			buffer.putFloat(position, (Float) value);
+			break;
+		default:
+			buffer.putDouble(position, (Double) value);
+		}
+		markNull(buffer, record, false);
+	}
+
+	/**
+	 * 读取 boolean 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param buffer
+	 *            缓冲区
+	 * @param record
+	 *            记录在缓冲区中的起始位置
+	 * @return
+	 */
+	public boolean getBoolean(ByteBuffer buffer, int record) {
+		check(BOOLEAN);
+		return buffer.get(record + offset) != 0;
+	}
+
+	/**
+	 * 读取 byte 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param buffer
+	 *            缓冲区
+	 * @param record
+	 *            记录在缓冲区中的起始位置
+	 * @return
+	 */
+	public byte getByte(ByteBuffer buffer, int record) {
+		check(BYTE);
+		return buffer.get(record + offset);
+	}
+
+	/**
+	 * 读取 char 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param buffer
+	 *            缓冲区
+	 * @param record
+	 *            记录在缓冲区中的起始位置
+	 * @return
+	 */
+	public char getChar(ByteBuffer buffer, int record) {
+		check(CHAR);
+		return buffer.getChar(record + offset);
+	}
+
+	/**
+	 * 读取 short 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param buffer
+	 *            缓冲区
+	 * @param record
+	 *            记录在缓冲区中的起始位置
+	 * @return
+	 */
+	public short getShort(ByteBuffer buffer, int record) {
+		check(SHORT);
+		return buffer.getShort(record + offset);
+	}
+
+	/**
+	 * 读取 int 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param buffer
+	 *            缓冲区
+	 * @param record
+	 *            记录在缓冲区中的起始位置
+	 * @return
+	 */
+	public int getInt(ByteBuffer buffer, int record) {
+		check(INT);
+		return buffer.getInt(record + offset);
+	}
+
+	/**
+	 * 读取 long 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param buffer
+	 *            缓冲区
+	 * @param record
+	 *            记录在缓冲区中的起始位置
+	 * @return
+	 */
+	public long getLong(ByteBuffer buffer, int record) {
+		check(LONG);
+		return buffer.getLong(record + offset);
+	}
+
+	/**
+	 * 读取 float 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param buffer
+	 *            缓冲区
+	 * @param record
+	 *            记录在缓冲区中的起始位置
+	 * @return
+	 */
+	public float getFloat(ByteBuffer buffer, int record) {
+		check(FLOAT);
+		return buffer.getFloat(record + offset);
+	}
+
+	/**
+	 * 读取 double 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param buffer
+	 *            缓冲区
+	 * @param record
+	 *            记录在缓冲区中的起始位置
+	 * @return
+	 */
+	public double getDouble(ByteBuffer buffer, int record) {
+		check(DOUBLE);
+		return buffer.getDouble(record + offset);
+	}
+
+	/**
+	 * 将对象的属性值写入记录, 基本类型不装箱
+	 */
+	void write(Object bean, ByteBuffer buffer, int record) {
+		if (nullBit >= 0 || kind == ENUM) {
+			set(buffer, record, handle.get(bean));
+			return;
+		}
+		int position = record + offset;
+		switch (kind) {
+		case BOOLEAN:
+			buffer.put(position, (byte) (handle.getBoolean(bean) ? 1 : 0));
+			break;
+		case BYTE:
+			buffer.put(position, handle.getByte(bean));
+			break;
+		case CHAR:
+			buffer.putChar(position, handle.getChar(bean));
+			break;
+		case SHORT:
+			buffer.putShort(position, handle.getShort(bean));
+			break;
+		case INT:
+			buffer.putInt(position, handle.getInt(bean));
+			break;
+		case LONG:
+			buffer.putLong(position, handle.getLong(bean));
+			break;
+		case FLOAT:
+			buffer.putFloat(position, handle.getFloat(bean));
+			break;
+		default:
+			buffer.putDouble(position, handle.getDouble(bean));
+		}
+	}
+
+	/**
+	 * 将记录中的值写回对象的属性, 基本类型不装箱
+	 */
+	void read(ByteBuffer buffer, int record, Object bean) {
+		if (nullBit >= 0 || kind == ENUM) {
+			handle.set(bean, get(buffer, record));
+			return;
+		}
+		int position = record + offset;
+		switch (kind) {
+		case BOOLEAN:
+			handle.setBoolean(bean, buffer.get(position) != 0);
+			break;
+		case BYTE:
+			handle.setByte(bean, buffer.get(position));
+			break;
+		case CHAR:
+			handle.setChar(bean, buffer.getChar(position));
+			break;
+		case SHORT:
+			handle.setShort(bean, buffer.getShort(position));
+			break;
+		case INT:
+			handle.setInt(bean, buffer.getInt(position));
+			break;
+		case LONG:
+			handle.setLong(bean, buffer.getLong(position));
+			break;
+		case FLOAT:
+			handle.setFloat(bean, buffer.getFloat(position));
+			break;
+		default:
+			handle.setDouble(bean, buffer.getDouble(position));
+		}
+	}
+
+	private void markNull(ByteBuffer buffer, int record, boolean isNull) {
+		int position = record + bitmapOffset + (nullBit >> 3);
+		int mask = 1 << (nullBit & 7);
+		byte bits = buffer.get(position);
+		buffer.put(position, (byte) (isNull ? bits & ~mask : bits | mask));
+	}
+
+	private void check(int expected) {
+		if (kind != expected) {
+			throw new BeanException(getName() + " property is of type "
+					+ getType().getName());
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getType().getSimpleName() + " " + getName() + " @" + offset;
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,324 @@
+package org.lychie.beanutil;
+
+import java.lang.reflect.Field;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+/**
+ * 基于 {@link MethodHandle} 的访问器工厂。属性的读写句柄在创建访问器时一次绑定,
+ * 调用时不再做反射的访问检查。句柄保存在访问器的实例字段中而不是常量, JIT 能否内联取决于调用点
+ * 
+ * @author Lychie Fan
+ */
+public class MethodHandleAccessorFactory implements AccessorFactory {
+
+	private static final MethodType getterType = MethodType.methodType(
+			Object.class, Object.class);
+	private static final MethodType setterType = MethodType.methodType(
+			void.class, Object.class, Object.class);
+
+	@Override
+	public PropertyAccessor newAccessor(Field field) {
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		MethodHandle getter = getter(lookup, field);
+		if (getter == null) {
+			return null;
+		}
+		getter = getter.asType(getterType);
+		MethodHandle setter = setter(lookup, field);
+		if (setter != null) {
+			/* 先转成包装类型, 避免句柄对 Number 做有损的窄化转换 */
+			setter = setter.asType(setter.type().wrap()).asType(setterType);
+		}
+		MethodHandle primitiveGetter = null;
+		MethodHandle primitiveSetter = null;
+		Class<?> type = field.getType();
+		if (type.isPrimitive()) {
+			primitiveGetter = getter(lookup, field).asType(
+					MethodType.methodType(type, Object.class));
+			if (setter != null) {
+				primitiveSetter = setter(lookup, field).asType(
+						MethodType.methodType(void.class, Object.class, type));
+			}
+		}
+		return new MethodHandleAccessor(field, getter, setter,
+				primitiveGetter, primitiveSetter);
+	}
+
+	private static MethodHandle getter(MethodHandles.Lookup lookup, Field field) {
+		try {
+			return lookup.unreflectGetter(field);
+		} catch (Throwable e) {
+			return null;
+		}
+	}
+
+	private static MethodHandle setter(MethodHandles.Lookup lookup, Field field) {
+		try {
+			return lookup.unreflectSetter(field);
+		} catch (Throwable e) {
+			/* final 属性, 写入回退到反射 */
+			return null;
+		}
+	}
+
+	/**
+	 * 方法句柄访问器。基本类型的属性另持有精确类型的句柄, 按属性自身的类型读写时不装箱
+	 */
+	private static class MethodHandleAccessor extends PropertyAccessor {
+
+		private final Class<?> type;
+		private final Class<?> wrapperType;
+		private final Class<?> declaringClass;
+		private final MethodHandle getter;
+		private final MethodHandle setter;
+		private final MethodHandle primitiveGetter;
+		private final MethodHandle primitiveSetter;
+
+		MethodHandleAccessor(Field field, MethodHandle getter,
+				MethodHandle setter, MethodHandle primitiveGetter,
+				MethodHandle primitiveSetter) {
+			super(field);
+			this.type = field.getType();
+			this.wrapperType = BeanClass.getWrapperClass(type);
+			this.declaringClass = field.getDeclaringClass();
+			this.getter = getter;
+			this.setter = setter;
+			this.primitiveGetter = primitiveGetter;
+			this.primitiveSetter = primitiveSetter;
+		}
+
+		@Override
+		public Object get(Object bean) {
+			try {
+				return (Object) getter.invokeExact(bean);
+			} catch (Throwable e) {
+				throw BeanMetrics.abnormal(e);
+			}
+		}
+
+		@Override
+		public void set(Object bean, Object value) {
+			/* 类型一致时经句柄写入; 基本类型的拓宽、null 及类型错误交给反射, 沿用反射的转换与报错 */
+			if (setter != null
+					&& declaringClass.isInstance(bean)
+					&& (value == null ? !type.isPrimitive() : wrapperType
+							.isInstance(value))) {
+				try {
+					setter.invokeExact(bean, value);
+				} catch (Throwable e) {
+					throw BeanMetrics.abnormal(e);
+				}
+				return;
+			}
+			try {
+				field.set(bean, value);
+			} catch (Throwable e) {
+				throw BeanMetrics.abnormal(e);
+			}
+		}
+
+		@Override
+		public boolean getBoolean(Object bean) {
+			if (type != boolean.class) {
+				return super.getBoolean(bean);
+			}
+			try {
+				return (boolean) primitiveGetter.invokeExact(bean);
+			} catch (Throwable e) {
+				throw BeanMetrics.abnormal(e);
+			}
+		}
+
+		@Override
+		public void setBoolean(Object bean, boolean value) {
+			if (type != boolean.class || primitiveSetter == null) {
+				super.setBoolean(bean, value);
+				return;
+			}
+			try {
+				primitiveSetter.invokeExact(bean, value);
+			} catch (Throwable e) {
+				throw BeanMetrics.abnormal(e);
+			}
+		}
+
+		@Override
+		public byte getByte(Object bean) {
+			if (type != byte.class) {
+				return super.getByte(bean);
+			}
+			try {
+				return (byte) primitiveGetter.invokeExact(bean);
+			} catch (Throwable e) {
+				throw BeanMetrics.abnormal(e);
+			}
+		}
+
+		@Override
+		public void setByte(Object bean, byte value) {
+			if (type != byte.class || primitiveSetter == null) {
+				super.setByte(bean, value);
+				return;
+			}
+			try {
+				primitiveSetter.invokeExact(bean, value);
+			} catch (Throwable e) {
+				throw BeanMetrics.abnormal(e);
+			}
+		}
+
+		@Override
+		public char getChar(Object bean) {
+			if (type != char.class) {
+				return super.getChar(bean);
+			}
+			try {
+				return (char) primitiveGetter.invokeExact(bean);
+			} catch (Throwable e) {
+				throw BeanMetrics.abnormal(e);
+			}
+		}
+
+		@Override
+		public void setChar(Object bean, char value) {
+			if (type != char.class || primitiveSetter == null) {
+				super.setChar(bean, value);
+				return;
+			}
+			try {
+				primitiveSetter.invokeExact(bean, value);
+			} catch (Throwable e) {
+				throw BeanMetrics.abnormal(e);
+			}
+		}
+
+		@Override
+		public short getShort(Object bean) {
+			if (type != short.class) {
+				return super.getShort(bean);
+			}
+			try {
+				return (short) primitiveGetter.invokeExact(bean);
+			} catch (Throwable e) {
+				throw BeanMetrics.abnormal(e);
+			}
+		}
+
+		@Override
+		public void setShort(Object bean, short value) {
+			if (type != short.class || primitiveSetter == null) {
+				super.setShort(bean, value);
+				return;
+			}
+			try {
+				primitiveSetter.invokeExact(bean, value);
+			} catch (Throwable e) {
+				throw BeanMetrics.abnormal(e);
+			}
+		}
+
+		@Override
+		public int getInt(Object bean) {
+			if (type != int.class) {
+				return super.getInt(bean);
+			}
+			try {
+				return (int) primitiveGetter.invokeExact(bean);
+			} catch (Throwable e) {
+				throw BeanMetrics.abnormal(e);
+			}
+		}
+
+		@Override
+		public void setInt(Object bean, int value) {
+			if (type != int.class || primitiveSetter == null) {
+				super.setInt(bean, value);
+				return;
+			}
+			try {
+				primitiveSetter.invokeExact(bean, value);
+			} catch (Throwable e) {
+				throw BeanMetrics.abnormal(e);
+			}
+		}
+
+		@Override
+		public long getLong(Object bean) {
+			if (type != long.class) {
+				return super.getLong(bean);
+			}
+			try {
+				return (long) primitiveGetter.invokeExact(bean);
+			} catch (Throwable e) {
+				throw BeanMetrics.abnormal(e);
+			}
+		}
+
+		@Override
+		public void setLong(Object bean, long value) {
+			if (type != long.class || primitiveSetter == null) {
+				super.setLong(bean, value);
+				return;
+			}
+			try {
+				primitiveSetter.invokeExact(bean, value);
+			} catch (Throwable e) {
+				throw BeanMetrics.abnormal(e);
+			}
+		}
+
+		@Override
+		public float getFloat(Object bean) {
+			if (type != float.class) {
+				return super.getFloat(bean);
+			}
+			try {
+				return (float) primitiveGetter.invokeExact(bean);
+			} catch (Throwable e) {
+				throw BeanMetrics.abnormal(e);
+			}
+		}
+
+		@Override
+		public void setFloat(Object bean, float value) {
+			if (type != float.class || primitiveSetter == null) {
+				super.setFloat(bean, value);
+				return;
+			}
+			try {
+				primitiveSetter.invokeExact(bean, value);
+			} catch (Throwable e) {
+				throw BeanMetrics.abnormal(e);
+			}
+		}
+
+		@Override
+		public double getDouble(Object bean) {
+			if (type != double.class) {
+				return super.getDouble(bean);
+			}
+			try {
+				return (double) primitiveGetter.invokeExact(bean);
+			} catch (Throwable e) {
+				throw BeanMetrics.abnormal(e);
+			}
+		}
+
+		@Override
+		public void setDouble(Object bean, double value) {
+			if (type != double.class || primitiveSetter == null) {
+				super.setDouble(bean, value);
+				return;
+			}
+			try {
+				primitiveSetter.invokeExact(bean, value);
+			} catch (Throwable e) {
+				throw BeanMetrics.abnormal(e);
+			}
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,219 @@
+package org.lychie.beanutil;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import org.lychie.beanutil.exception.BeanException;
+import org.lychie.beanutil.exception.AbnormalException;
+
+/**
+ * 方法调用器。由 {@link BeanMethod#getInvoker(Class, String, Class...)} 解析得到,
+ * 内部持有已适配为 (Object, Object...)Object 的方法句柄, 可反复使用。<br>
+ * 固定参数个数的 invoke0 ~ invoke4 不创建参数数组; 调用类方法时 target 参数被忽略
+ * 
+ * @author Lychie Fan
+ */
+public final class MethodInvoker {
+
+	private final Method method;
+	private final int arity;
+	private final MethodHandle handle;
+	private final MethodHandle spreader;
+
+	MethodInvoker(Method method) throws IllegalAccessException {
+		MethodHandle target = MethodHandles.lookup().unreflect(method)
+				.asFixedArity();
+		if (Modifier.isStatic(method.getModifiers())) {
+			target = MethodHandles.dropArguments(target, 0, Object.class);
+		}
+		this.method = method;
+		this.arity = method.getParameterTypes().length;
+		this.handle = target.asType(MethodType.genericMethodType(arity + 1));
+		this.spreader = handle.asSpreader(Object[].class, arity);
+	}
+
+	/**
+	 * 获取被调用的方法
+	 * 
+	 * @return
+	 */
+	public Method getMethod() {
+		return method;
+	}
+
+	/**
+	 * 获取方法参数的个数
+	 * 
+	 * @return
+	 */
+	public int getArity() {
+		return arity;
+	}
+
+	/**
+	 * 调用方法
+	 * 
+	 * @param target
+	 *            调用对象方法时为类的一个实例
+	 * @param args
+	 *            方法参数的值
+	 * @return 方法的返回值, void 方法返回 null
+	 */
+	@SuppressWarnings("unchecked")
+	public <E> E invoke(Object target, Object... args) {
+		if (args == null) {
+			args = new Object[0];
+		}
+		checkArity(args.length);
+		try {
+			return (E) (Object) spreader.invokeExact(target, args);
+		} catch (Throwable e) {
+			throw rethrow(e);
+		}
+	}
+
+	/**
+	 * 调用无参方法
+	 * 
+	 * @param target
+	 *            调用对象方法时为类的一个实例
+	 * @return 方法的返回值, void 方法返回 null
+	 */
+	@SuppressWarnings("unchecked")
+	public <E> E invoke0(Object target) {
+		checkArity(0);
+		try {
+			return (E) (Object) handle.invokeExact(target);
+		} catch (Throwable e) {
+			throw rethrow(e);
+		}
+	}
+
+	/**
+	 * 调用单参数方法
+	 * 
+	 * @param target
+	 *            调用对象方法时为类的一个实例
+	 * @param arg0
+	 *            参数值
+	 * @return 方法的返回值, void 方法返回 null
+	 */
+	@SuppressWarnings("unchecked")
+	public <E> E invoke1(Object target, Object arg0) {
+		checkArity(1);
+		try {
+			return (E) (Object) handle.invokeExact(target, arg0);
+		} catch (Throwable e) {
+			throw rethrow(e);
+		}
+	}
+
+	/**
+	 * 调用两个参数的方法
+	 * 
+	 * @param target
+	 *            调用对象方法时为类的一个实例
+	 * @param arg0
+	 *            参数值
+	 * @param arg1
+	 *            参数值
+	 * @return 方法的返回值, void 方法返回 null
+	 */
+	@SuppressWarnings("unchecked")
+	public <E> E invoke2(Object target, Object arg0, Object arg1) {
+		checkArity(2);
+		try {
+			return (E) (Object) handle.invokeExact(target, arg0, arg1);
+		} catch (Throwable e) {
+			throw rethrow(e);
+		}
+	}
+
+	/**
+	 * 调用三个参数的方法
+	 * 
+	 * @param target
+	 *            调用对象方法时为类的一个实例
+	 * @param arg0
+	 *            参数值
+	 * @param arg1
+	 *            参数值
+	 * @param arg2
+	 *            参数值
+	 * @return 方法的返回值, void 方法返回 null
+	 */
+	@SuppressWarnings("unchecked")
+	public <E> E invoke3(Object target, Object arg0, Object arg1, Object arg2) {
+		checkArity(3);
+		try {
+			return (E) (Object) handle.invokeExact(target, arg0, arg1, arg2);
+		} catch (Throwable e) {
+			throw rethrow(e);
+		}
+	}
+
+	/**
+	 * 调用四个参数的方法
+	 * 
+	 * @param target
+	 *            调用对象方法时为类的一个实例
+	 * @param arg0
+	 *            参数值
+	 * @param arg1
+	 *            参数值
+	 * @param arg2
+	 *            参数值
+	 * @param arg3
+	 *            参数值
+	 * @return 方法的返回值, void 方法返回 null
+	 */
+	@SuppressWarnings("unchecked")
+	public <E> E invoke4(Object target, Object arg0, Object arg1,
+			Object arg2, Object arg3) {
+
+		checkArity(4);
+		try {
+			return (E) (Object) handle.invokeExact(target, arg0, arg1, arg2,
+					arg3);
+		} catch (Throwable e) {
+			throw rethrow(e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return method.toString();
+	}
+
+	/**
+	 * 检查参数个数
+	 * 
+	 * @param count
+	 *            实际的参数个数
+	 */
+	private void checkArity(int count) {
+		if (count != arity) {
+			throw new IllegalArgumentException(method.getName()
+					+ " method expects " + arity + " arguments but got "
+					+ count);
+		}
+	}
+
+	/**
+	 * 与 {@link BeanMethod#invoke(Object, String, Object[], Class[])} 一致,
+	 * BeanException 原样抛出, 其余异常(包括参数类型不匹配的 ClassCastException)包装为 AbnormalException
+	 * 
+	 * @param e
+	 *            异常
+	 * @return
+	 */
+	private static RuntimeException rethrow(Throwable e) {
+		if (e instanceof BeanException) {
+			return (BeanException) e;
+		}
+		return BeanMetrics.abnormal(e);
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,330 @@
+package org.lychie.beanutil;
+
+import java.lang.reflect.Field;
+
+/**
+ * 属性访问器。每个访问器绑定一个属性, 由 {@link AccessorFactory} 创建。<br>
+ * 基本类型的读写方法默认委托给 {@link Field} 的同名方法, 支持基本类型的拓宽转换
+ * 
+ * @author Lychie Fan
+ */
+public abstract class PropertyAccessor {
+
+	protected final Field field;
+
+	protected PropertyAccessor(Field field) {
+		this.field = field;
+	}
+
+	/**
+	 * 获取访问器绑定的属性
+	 * 
+	 * @return
+	 */
+	public Field getField() {
+		return field;
+	}
+
+	/**
+	 * 获取属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @return
+	 */
+	public abstract Object get(Object bean);
+
+	/**
+	 * 设置属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param value
+	 *            属性值
+	 */
+	public abstract void set(Object bean, Object value);
+
+	/**
+	 * 获取 boolean 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @return
+	 */
+	public boolean getBoolean(Object bean) {
+		try {
+			return field.getBoolean(bean);
+		} catch (Throwable e) {
+			throw BeanMetrics.abnormal(e);
+		}
+	}
+
+	/**
+	 * 设置 boolean 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param value
+	 *            属性值
+	 */
+	public void setBoolean(Object bean, boolean value) {
+		try {
+			field.setBoolean(bean, value);
+		} catch (Throwable e) {
+			throw BeanMetrics.abnormal(e);
+		}
+	}
+
+	/**
+	 * 获取 byte 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @return
+	 */
+	public byte getByte(Object bean) {
+		try {
+			return field.getByte(bean);
+		} catch (Throwable e) {
+			throw BeanMetrics.abnormal(e);
+		}
+	}
+
+	/**
+	 * 设置 byte 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param value
+	 *            属性值
+	 */
+	public void setByte(Object bean, byte value) {
+		try {
+			field.setByte(bean, value);
+		} catch (Throwable e) {
+			throw BeanMetrics.abnormal(e);
+		}
+	}
+
+	/**
+	 * 获取 char 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @return
+	 */
+	public char getChar(Object bean) {
+		try {
+			return field.getChar(bean);
+		} catch (Throwable e) {
+			throw BeanMetrics.abnormal(e);
+		}
+	}
+
+	/**
+	 * 设置 char 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param value
+	 *            属性值
+	 */
+	public void setChar(Object bean, char value) {
+		try {
+			field.setChar(bean, value);
+		} catch (Throwable e) {
+			throw BeanMetrics.abnormal(e);
+		}
+	}
+
+	/**
+	 * 获取 short 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @return
+	 */
+	public short getShort(Object bean) {
+		try {
+			return field.getShort(bean);
+		} catch (Throwable e) {
+			throw BeanMetrics.abnormal(e);
+		}
+	}
+
+	/**
+	 * 设置 short 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param value
+	 *            属性值
+	 */
+	public void setShort(Object bean, short value) {
+		try {
+			field.setShort(bean, value);
+		} catch (Throwable e) {
+			throw BeanMetrics.abnormal(e);
+		}
+	}
+
+	/**
+	 * 获取 int 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @return
+	 */
+	public int getInt(Object bean) {
+		try {
+			return field.getInt(bean);
+		} catch (Throwable e) {
+			throw BeanMetrics.abnormal(e);
+		}
+	}
+
+	/**
+	 * 设置 int 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param value
+	 *            属性值
+	 */
+	public void setInt(Object bean, int value) {
+		try {
+			field.setInt(bean, value);
+		} catch (Throwable e) {
+			throw BeanMetrics.abnormal(e);
+		}
+	}
+
+	/**
+	 * 获取 long 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @return
+	 */
+	public long getLong(Object bean) {
+		try {
+			return field.getLong(bean);
+		} catch (Throwable e) {
+			throw BeanMetrics.abnormal(e);
+		}
+	}
+
+	/**
+	 * 设置 long 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param value
+	 *            属性值
+	 */
+	public void setLong(Object bean, long value) {
+		try {
+			field.setLong(bean, value);
+		} catch (Throwable e) {
+			throw BeanMetrics.abnormal(e);
+		}
+	}
+
+	/**
+	 * 获取 float 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @return
+	 */
+	public float getFloat(Object bean) {
+		try {
+			return field.getFloat(bean);
+		} catch (Throwable e) {
+			throw BeanMetrics.abnormal(e);
+		}
+	}
+
+	/**
+	 * 设置 float 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param value
+	 *            属性值
+	 */
+	public void setFloat(Object bean, float value) {
+		try {
+			field.setFloat(bean, value);
+		} catch (Throwable e) {
+			throw BeanMetrics.abnormal(e);
+		}
+	}
+
+	/**
+	 * 获取 double 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @return
+	 */
+	public double getDouble(Object bean) {
+		try {
+			return field.getDouble(bean);
+		} catch (Throwable e) {
+			throw BeanMetrics.abnormal(e);
+		}
+	}
+
+	/**
+	 * 设置 double 类型属性的值, 不产生装箱对象
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param value
+	 *            属性值
+	 */
+	public void setDouble(Object bean, double value) {
+		try {
+			field.setDouble(bean, value);
+		} catch (Throwable e) {
+			throw BeanMetrics.abnormal(e);
+		}
+	}
+
+	/**
+	 * 按值的包装类型分派到基本类型的设置方法, 用于基本类型属性的
+	 * {@link #set(Object, Object)}, 支持基本类型的拓宽转换
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param value
+	 *            属性值
+	 */
+	protected final void setPrimitive(Object bean, Object value) {
+		if (value instanceof Integer) {
+			setInt(bean, (Integer) value);
+		} else if (value instanceof Long) {
+			setLong(bean, (Long) value);
+		} else if (value instanceof Double) {
+			setDouble(bean, (Double) value);
+		} else if (value instanceof Boolean) {
+			setBoolean(bean, (Boolean) value);
+		} else if (value instanceof Float) {
+			setFloat(bean, (Float) value);
+		} else if (value instanceof Short) {
+			setShort(bean, (Short) value);
+		} else if (value instanceof Byte) {
+			setByte(bean, (Byte) value);
+		} else if (value instanceof Character) {
+			setChar(bean, (Character) value);
+		} else {
+			throw BeanMetrics.abnormal(new IllegalArgumentException(
+					"can not set " + field.getType().getName() + " field "
+							+ field.getName() + " to "
+							+ (value == null ? "null value" : value.getClass()
+									.getName())));
+		}
+	}
+
+}
\ No newline at end of file
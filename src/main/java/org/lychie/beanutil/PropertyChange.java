@@ -0,0 +1,54 @@
+package org.lychie.beanutil;
+
+/**
+ * 属性的变化, 由 {@link BeanComparison#diff(Object, Object)} 得到
+ * 
+ * @author Lychie Fan
+ */
+public final class PropertyChange {
+
+	private final String name;
+	private final Object oldValue;
+	private final Object newValue;
+
+	PropertyChange(String name, Object oldValue, Object newValue) {
+		this.name = name;
+		this.oldValue = oldValue;
+		this.newValue = newValue;
+	}
+
+	/**
+	 * 获取属性名称
+	 * 
+	 * @return
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * 获取属性原来的值
+	 * 
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public <E> E getOldValue() {
+		return (E) oldValue;
+	}
+
+	/**
+	 * 获取属性新的值
+	 * 
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public <E> E getNewValue() {
+		return (E) newValue;
+	}
+
+	@Override
+	public String toString() {
+		return name + ": " + oldValue + " -> " + newValue;
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,310 @@
+package org.lychie.beanutil;
+
+import java.lang.reflect.Field;
+
+/**
+ * 属性句柄。通过 {@link ClassWrapper#property(String)} 一次解析得到, 可反复使用,
+ * 读写时不再按属性名称查找
+ * 
+ * @author Lychie Fan
+ */
+public final class PropertyHandle {
+
+	private final String name;
+	private final Class<?> type;
+	private final Class<?> boxedType;
+	private final PropertyTable table;
+	private final PropertyAccessor accessor;
+	/* 延迟解析的句柄在属性表补齐之前没有索引 */
+	private volatile int index = -1;
+
+	PropertyHandle(PropertyTable table, PropertyAccessor accessor) {
+		Field field = accessor.getField();
+		this.name = field.getName();
+		this.type = field.getType();
+		this.boxedType = BeanClass.getWrapperClass(type);
+		this.table = table;
+		this.accessor = accessor;
+	}
+
+	void setIndex(int index) {
+		this.index = index;
+	}
+
+	/**
+	 * 获取属性名称
+	 * 
+	 * @return
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * 获取属性的索引, 与 {@link BeanAccess} 的索引一致
+	 * 
+	 * @return
+	 */
+	public int getIndex() {
+		if (index < 0) {
+			table.all();
+		}
+		return index;
+	}
+
+	/**
+	 * 获取属性的类型
+	 * 
+	 * @return
+	 */
+	public Class<?> getType() {
+		return type;
+	}
+
+	/**
+	 * 获取属性
+	 * 
+	 * @return
+	 */
+	public Field getField() {
+		return accessor.getField();
+	}
+
+	/**
+	 * 获取属性的访问器
+	 * 
+	 * @return
+	 */
+	public PropertyAccessor getAccessor() {
+		return accessor;
+	}
+
+	/**
+	 * 获取属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public <E> E get(Object bean) {
+		return (E) accessor.get(bean);
+	}
+
+	/**
+	 * 设置属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param value
+	 *            属性值
+	 */
+	public void set(Object bean, Object value) {
+		accessor.set(bean, value);
+	}
+
+	/**
+	 * 设置属性的值, 值的类型与属性的类型不符时先经 {@link Converters} 转换
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param value
+	 *            属性值
+	 */
+	public void setConverted(Object bean, Object value) {
+		if (value != null && !boxedType.isInstance(value)) {
+			value = Converters.convert(value, type);
+		}
+		accessor.set(bean, value);
+	}
+
+	/**
+	 * 获取 boolean 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @return
+	 */
+	public boolean getBoolean(Object bean) {
+		return accessor.getBoolean(bean);
+	}
+
+	/**
+	 * 设置 boolean 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param value
+	 *            属性值
+	 */
+	public void setBoolean(Object bean, boolean value) {
+		accessor.setBoolean(bean, value);
+	}
+
+	/**
+	 * 获取 byte 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @return
+	 */
+	public byte getByte(Object bean) {
+		return accessor.getByte(bean);
+	}
+
+	/**
+	 * 设置 byte 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param value
+	 *            属性值
+	 */
+	public void setByte(Object bean, byte value) {
+		accessor.setByte(bean, value);
+	}
+
+	/**
+	 * 获取 char 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @return
+	 */
+	public char getChar(Object bean) {
+		return accessor.getChar(bean);
+	}
+
+	/**
+	 * 设置 char 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param value
+	 *            属性值
+	 */
+	public void setChar(Object bean, char value) {
+		accessor.setChar(bean, value);
+	}
+
+	/**
+	 * 获取 short 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @return
+	 */
+	public short getShort(Object bean) {
+		return accessor.getShort(bean);
+	}
+
+	/**
+	 * 设置 short 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param value
+	 *            属性值
+	 */
+	public void setShort(Object bean, short value) {
+		accessor.setShort(bean, value);
+	}
+
+	/**
+	 * 获取 int 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @return
+	 */
+	public int getInt(Object bean) {
+		return accessor.getInt(bean);
+	}
+
+	/**
+	 * 设置 int 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param value
+	 *            属性值
+	 */
+	public void setInt(Object bean, int value) {
+		accessor.setInt(bean, value);
+	}
+
+	/**
+	 * 获取 long 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @return
+	 */
+	public long getLong(Object bean) {
+		return accessor.getLong(bean);
+	}
+
+	/**
+	 * 设置 long 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param value
+	 *            属性值
+	 */
+	public void setLong(Object bean, long value) {
+		accessor.setLong(bean, value);
+	}
+
+	/**
+	 * 获取 float 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @return
+	 */
+	public float getFloat(Object bean) {
+		return accessor.getFloat(bean);
+	}
+
+	/**
+	 * 设置 float 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param value
+	 *            属性值
+	 */
+	public void setFloat(Object bean, float value) {
+		accessor.setFloat(bean, value);
+	}
+
+	/**
+	 * 获取 double 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @return
+	 */
+	public double getDouble(Object bean) {
+		return accessor.getDouble(bean);
+	}
+
+	/**
+	 * 设置 double 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param value
+	 *            属性值
+	 */
+	public void setDouble(Object bean, double value) {
+		accessor.setDouble(bean, value);
+	}
+
+	@Override
+	public String toString() {
+		return type.getSimpleName() + " " + name;
+	}
+
+}
\ No newline at end of file
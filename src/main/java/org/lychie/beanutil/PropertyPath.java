@@ -0,0 +1,387 @@
+package org.lychie.beanutil;
+
+import java.util.Map;
+import java.util.List;
+import java.util.Iterator;
+import java.util.ArrayList;
+import java.lang.reflect.Array;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.lychie.beanutil.exception.BeanException;
+
+/**
+ * 属性路径。支持嵌套属性与索引, 如 order.customer.address.zip、items[3].price、
+ * attributes[color] 或 attributes['3']。<br>
+ * 路径只解析一次, 编译为访问器链并缓存; 每一级按对象的实际类型缓存上一次解析到的属性句柄。
+ * 索引作用于 List、数组与 Map: 数字索引用于 List/数组, 作用于 Map 时作为 Integer 键;
+ * 非数字或带引号的索引作为 String 键
+ * 
+ * @author Lychie Fan
+ */
+public final class PropertyPath {
+
+	private static final int maxCacheSize = 1024;
+	private static final ConcurrentMap<String, PropertyPath> cache = new ConcurrentHashMap<String, PropertyPath>();
+
+	private final String expression;
+	private final Segment[] segments;
+	private final boolean nullSafe;
+
+	private PropertyPath(String expression, Segment[] segments,
+			boolean nullSafe) {
+
+		this.expression = expression;
+		this.segments = segments;
+		this.nullSafe = nullSafe;
+	}
+
+	/**
+	 * 编译属性路径, 中间结果为 null 时抛出异常
+	 * 
+	 * @param expression
+	 *            属性路径
+	 * @return
+	 */
+	public static PropertyPath compile(String expression) {
+		return compile(expression, false);
+	}
+
+	/**
+	 * 编译属性路径。同一路径只解析一次
+	 * 
+	 * @param expression
+	 *            属性路径
+	 * @param nullSafe
+	 *            为 true 时, 中间结果为 null 则读取返回 null、写入被忽略, 而不是抛出异常
+	 * @return
+	 */
+	public static PropertyPath compile(String expression, boolean nullSafe) {
+		if (expression == null) {
+			throw new NullPointerException(
+					"the argument expression can not be null");
+		}
+		String key = nullSafe ? "?" + expression : expression;
+		PropertyPath path = cache.get(key);
+		if (path == null) {
+			path = new PropertyPath(expression, parse(expression), nullSafe);
+			if (cache.size() >= maxCacheSize) {
+				Iterator<String> keys = cache.keySet().iterator();
+				if (keys.hasNext()) {
+					cache.remove(keys.next());
+				}
+			}
+			cache.put(key, path);
+		}
+		return path;
+	}
+
+	/**
+	 * 清空已编译路径的缓存。编译后的路径会记住解析过的类, {@link ClassWrapper#evictAll()}
+	 * 会调用此方法; 调用方持有的路径在包装器失效后也会重新解析属性
+	 * 
+	 * @see ClassWrapper#evictAll()
+	 */
+	public static void evictAll() {
+		cache.clear();
+	}
+
+	/**
+	 * 获取路径表达式
+	 * 
+	 * @return
+	 */
+	public String getExpression() {
+		return expression;
+	}
+
+	/**
+	 * 是否为空值安全的路径
+	 * 
+	 * @return
+	 */
+	public boolean isNullSafe() {
+		return nullSafe;
+	}
+
+	/**
+	 * 读取路径指向的值
+	 * 
+	 * @param root
+	 *            根对象
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public <E> E get(Object root) {
+		Object current = root;
+		for (int i = 0; i < segments.length; i++) {
+			if (current == null) {
+				return nullAt(i);
+			}
+			current = segments[i].get(current);
+		}
+		return (E) current;
+	}
+
+	/**
+	 * 写入路径指向的值
+	 * 
+	 * @param root
+	 *            根对象
+	 * @param value
+	 *            值
+	 */
+	public void set(Object root, Object value) {
+		Object current = root;
+		int last = segments.length - 1;
+		for (int i = 0; i < last; i++) {
+			if (current == null) {
+				nullAt(i);
+				return;
+			}
+			current = segments[i].get(current);
+		}
+		if (current == null) {
+			nullAt(last);
+			return;
+		}
+		segments[last].set(current, value);
+	}
+
+	@Override
+	public String toString() {
+		return expression;
+	}
+
+	/**
+	 * 第 index 级的对象为 null
+	 * 
+	 * @param index
+	 *            路径的级数
+	 * @return 空值安全时返回 null, 否则抛出异常
+	 */
+	private <E> E nullAt(int index) {
+		if (nullSafe) {
+			return null;
+		}
+		String at = index == 0 ? "root object" : "value of "
+				+ prefix(index);
+		throw new BeanException(at + " is null in the property path "
+				+ expression);
+	}
+
+	/**
+	 * 前 count 级的路径表达式
+	 */
+	private String prefix(int count) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			segments[i].appendTo(builder);
+		}
+		return builder.charAt(0) == '.' ? builder.substring(1) : builder
+				.toString();
+	}
+
+	/**
+	 * 解析路径表达式
+	 * 
+	 * @param expression
+	 *            属性路径
+	 * @return
+	 */
+	private static Segment[] parse(String expression) {
+		List<Segment> list = new ArrayList<Segment>();
+		int length = expression.length();
+		int i = 0;
+		boolean expectName = true;
+		while (i < length) {
+			char c = expression.charAt(i);
+			if (c == '[') {
+				int end = expression.indexOf(']', i);
+				if (end == -1) {
+					throw illegal(expression);
+				}
+				String key = expression.substring(i + 1, end).trim();
+				list.add(indexSegment(key, expression));
+				i = end + 1;
+				expectName = false;
+			} else if (c == '.' && !expectName) {
+				i++;
+				expectName = true;
+			} else if (expectName && Character.isJavaIdentifierStart(c)) {
+				int end = i + 1;
+				while (end < length
+						&& Character.isJavaIdentifierPart(expression
+								.charAt(end))) {
+					end++;
+				}
+				list.add(new PropertySegment(expression.substring(i, end)));
+				i = end;
+				expectName = false;
+			} else {
+				throw illegal(expression);
+			}
+		}
+		if (list.isEmpty() || expectName) {
+			throw illegal(expression);
+		}
+		return list.toArray(new Segment[list.size()]);
+	}
+
+	private static Segment indexSegment(String key, String expression) {
+		int length = key.length();
+		if (length >= 2
+				&& (key.charAt(0) == '\'' || key.charAt(0) == '"')
+				&& key.charAt(length - 1) == key.charAt(0)) {
+			return new IndexSegment(key.substring(1, length - 1), -1);
+		}
+		if (length == 0) {
+			throw illegal(expression);
+		}
+		try {
+			return new IndexSegment(key, Integer.parseInt(key));
+		} catch (NumberFormatException e) {
+			return new IndexSegment(key, -1);
+		}
+	}
+
+	private static BeanException illegal(String expression) {
+		return new BeanException("illegal property path: " + expression);
+	}
+
+	/**
+	 * 路径中的一级
+	 */
+	private static abstract class Segment {
+
+		abstract Object get(Object target);
+
+		abstract void set(Object target, Object value);
+
+		abstract void appendTo(StringBuilder builder);
+
+	}
+
+	/**
+	 * 属性, 按对象的实际类型缓存上一次解析到的属性句柄, 包装器失效后重新解析
+	 */
+	private static final class PropertySegment extends Segment {
+
+		private final String name;
+		private Resolved resolved;
+
+		PropertySegment(String name) {
+			this.name = name;
+		}
+
+		@Override
+		Object get(Object target) {
+			return handleOf(target).get(target);
+		}
+
+		@Override
+		void set(Object target, Object value) {
+			handleOf(target).set(target, value);
+		}
+
+		@Override
+		void appendTo(StringBuilder builder) {
+			builder.append('.').append(name);
+		}
+
+		private PropertyHandle handleOf(Object target) {
+			Class<?> type = target.getClass();
+			Resolved last = resolved;
+			int version = ClassWrapper.generation();
+			if (last != null && last.type == type && last.version == version) {
+				return last.handle;
+			}
+			PropertyHandle handle = ClassWrapper.wrap(type).property(name);
+			resolved = new Resolved(type, handle, version);
+			return handle;
+		}
+
+	}
+
+	/**
+	 * 已解析的类型与属性句柄
+	 */
+	private static final class Resolved {
+
+		final Class<?> type;
+		final PropertyHandle handle;
+		final int version;
+
+		Resolved(Class<?> type, PropertyHandle handle, int version) {
+			this.type = type;
+			this.handle = handle;
+			this.version = version;
+		}
+
+	}
+
+	/**
+	 * 索引
+	 */
+	private static final class IndexSegment extends Segment {
+
+		private final String key;
+		private final int index;
+
+		IndexSegment(String key, int index) {
+			this.key = key;
+			this.index = index;
+		}
+
+		@Override
+		Object get(Object target) {
+			if (target instanceof Map) {
+				return ((Map<?, ?>) target).get(mapKey());
+			}
+			if (target instanceof List) {
+				return ((List<?>) target).get(index());
+			}
+			if (target.getClass().isArray()) {
+				return Array.get(target, index());
+			}
+			throw notIndexable(target);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		void set(Object target, Object value) {
+			if (target instanceof Map) {
+				((Map<Object, Object>) target).put(mapKey(), value);
+			} else if (target instanceof List) {
+				((List<Object>) target).set(index(), value);
+			} else if (target.getClass().isArray()) {
+				Array.set(target, index(), value);
+			} else {
+				throw notIndexable(target);
+			}
+		}
+
+		@Override
+		void appendTo(StringBuilder builder) {
+			builder.append('[').append(key).append(']');
+		}
+
+		private Object mapKey() {
+			return index >= 0 ? Integer.valueOf(index) : key;
+		}
+
+		private int index() {
+			if (index < 0) {
+				throw new BeanException("[" + key
+						+ "] is not a valid list or array index");
+			}
+			return index;
+		}
+
+		private BeanException notIndexable(Object target) {
+			return new BeanException("[" + key + "] can not be applied to "
+					+ target.getClass().getSimpleName());
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,255 @@
+package org.lychie.beanutil;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 类的属性表。属性按字段的发现顺序(子类在前, 同名时子类的属性优先)排列, 顺序即属性的索引。<br>
+ * 非延迟模式下创建时即解析全部属性; 延迟模式下, 首次访问时只登记字段名称,
+ * 属性在第一次被访问时才设置可访问并创建访问器, 需要完整属性表时再补齐其余属性
+ * 
+ * @author Lychie Fan
+ */
+final class PropertyTable {
+
+	private static final AccessorFactory fallbackFactory = new ReflectionAccessorFactory();
+
+	private final Class<?> beanClass;
+	private final AccessorFactory factory;
+	/* 编译期生成的访问器工厂 */
+	private final FastBeanProvider provider;
+	/* 延迟模式下已解析的属性句柄 */
+	private final ConcurrentMap<String, PropertyHandle> resolved;
+	/* 字段名称到字段的登记表, 字段尚未设置可访问 */
+	private volatile Map<String, Field> fieldIndex;
+	/* 完整的属性表 */
+	private volatile Complete complete;
+
+	PropertyTable(Class<?> beanClass, AccessorFactory factory, boolean lazy) {
+		this.beanClass = beanClass;
+		this.factory = factory;
+		this.provider = FastBeanRegistry.providerOf(beanClass);
+		if (lazy) {
+			resolved = new ConcurrentHashMap<String, PropertyHandle>();
+		} else {
+			resolved = null;
+			complete();
+		}
+	}
+
+	/**
+	 * 查找属性句柄
+	 * 
+	 * @param propertyName
+	 *            属性名称
+	 * @return 不存在时返回 null
+	 */
+	PropertyHandle find(String propertyName) {
+		Complete table = complete;
+		if (table != null) {
+			return table.handles.get(propertyName);
+		}
+		PropertyHandle handle = resolved.get(propertyName);
+		if (handle != null) {
+			return handle;
+		}
+		synchronized (this) {
+			/* complete() 持有同一把锁, 完成后只使用完整表中的句柄, 以免句柄没有索引 */
+			table = complete;
+			if (table != null) {
+				return table.handles.get(propertyName);
+			}
+			handle = resolved.get(propertyName);
+			if (handle == null) {
+				Field field = fieldIndex().get(propertyName);
+				if (field == null) {
+					return null;
+				}
+				handle = new PropertyHandle(this, newAccessor(field));
+				resolved.put(propertyName, handle);
+			}
+			return handle;
+		}
+	}
+
+	/**
+	 * 获取按索引排列的全部属性句柄
+	 * 
+	 * @return
+	 */
+	PropertyHandle[] all() {
+		return complete().array;
+	}
+
+	/**
+	 * 获取属性名称到属性句柄的映射
+	 * 
+	 * @return 不可修改的 Map
+	 */
+	Map<String, PropertyHandle> handles() {
+		return complete().handles;
+	}
+
+	/**
+	 * 获取属性名称到属性的映射
+	 * 
+	 * @return 不可修改的 Map
+	 */
+	Map<String, Field> fields() {
+		return complete().fields;
+	}
+
+	/**
+	 * 获取属性名称到属性的只读视图, 首次读取时才补齐完整的属性表
+	 * 
+	 * @return
+	 */
+	Map<String, Field> fieldsView() {
+		return new AbstractMap<String, Field>() {
+
+			@Override
+			public Field get(Object key) {
+				return fields().get(key);
+			}
+
+			@Override
+			public boolean containsKey(Object key) {
+				return fields().containsKey(key);
+			}
+
+			@Override
+			public Set<Map.Entry<String, Field>> entrySet() {
+				return fields().entrySet();
+			}
+
+		};
+	}
+
+	/**
+	 * 补齐完整的属性表, 延迟模式下已解析的句柄被沿用
+	 * 
+	 * @return
+	 */
+	private Complete complete() {
+		Complete table = complete;
+		if (table != null) {
+			return table;
+		}
+		synchronized (this) {
+			table = complete;
+			if (table == null) {
+				Map<String, Field> index = fieldIndex();
+				Map<String, Field> fields = new LinkedHashMap<String, Field>(
+						index.size() * 4 / 3 + 1);
+				Map<String, PropertyHandle> handles = new LinkedHashMap<String, PropertyHandle>(
+						index.size() * 4 / 3 + 1);
+				PropertyHandle[] array = new PropertyHandle[index.size()];
+				for (Field field : index.values()) {
+					String name = field.getName();
+					PropertyHandle handle = resolved == null ? null
+							: resolved.get(name);
+					if (handle == null) {
+						handle = new PropertyHandle(this, newAccessor(field));
+					}
+					handle.setIndex(handles.size());
+					array[handles.size()] = handle;
+					handles.put(name, handle);
+					fields.put(name, handle.getField());
+				}
+				complete = table = new Complete(
+						Collections.unmodifiableMap(fields),
+						Collections.unmodifiableMap(handles), array);
+				fieldIndex = null;
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * 登记类及其超类声明的非静态字段, 只登记名称, 不设置可访问
+	 * 
+	 * @return
+	 */
+	private Map<String, Field> fieldIndex() {
+		Map<String, Field> index = fieldIndex;
+		if (index != null) {
+			return index;
+		}
+		synchronized (this) {
+			index = fieldIndex;
+			if (index == null) {
+				index = new LinkedHashMap<String, Field>();
+				for (Class<?> type = beanClass; type != null; type = type
+						.getSuperclass()) {
+					for (Field field : type.getDeclaredFields()) {
+						if (!Modifier.isStatic(field.getModifiers())
+								&& !index.containsKey(field.getName())) {
+							index.put(field.getName(), field);
+						}
+					}
+				}
+				fieldIndex = index;
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * 创建访问器。字段总是先设置为可访问, 以便通过属性表得到的 Field 可以直接使用;
+	 * 优先使用编译期生成的访问器, 此时字段无法设置为可访问(如模块未开放)也不影响访问,
+	 * 该 Field 保持不可访问。否则由工厂创建, 工厂无法创建时回退到反射访问
+	 * 
+	 * @param field
+	 *            字段
+	 * @return
+	 */
+	private PropertyAccessor newAccessor(Field field) {
+		PropertyAccessor accessor = provider == null ? null : provider
+				.newAccessor(field);
+		try {
+			field.setAccessible(true);
+		} catch (RuntimeException e) {
+			if (accessor == null) {
+				throw e;
+			}
+		}
+		if (accessor != null) {
+			return accessor;
+		}
+		try {
+			accessor = factory.newAccessor(field);
+		} catch (Throwable e) {
+			/* ignore */
+		}
+		if (accessor == null) {
+			accessor = fallbackFactory.newAccessor(field);
+		}
+		return accessor;
+	}
+
+	/**
+	 * 完整的属性表
+	 */
+	private static final class Complete {
+
+		final Map<String, Field> fields;
+		final Map<String, PropertyHandle> handles;
+		final PropertyHandle[] array;
+
+		Complete(Map<String, Field> fields,
+				Map<String, PropertyHandle> handles, PropertyHandle[] array) {
+			this.fields = fields;
+			this.handles = handles;
+			this.array = array;
+		}
+
+	}
+
+}
\ No newline at end of file
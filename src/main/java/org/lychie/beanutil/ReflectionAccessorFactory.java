@@ -0,0 +1,47 @@
+package org.lychie.beanutil;
+
+import java.lang.reflect.Field;
+
+/**
+ * 基于 {@link Field#get(Object)} / {@link Field#set(Object, Object)} 的访问器工厂,
+ * 总能创建访问器, 作为其它工厂的回退
+ * 
+ * @author Lychie Fan
+ */
+public class ReflectionAccessorFactory implements AccessorFactory {
+
+	@Override
+	public PropertyAccessor newAccessor(Field field) {
+		return new ReflectionAccessor(field);
+	}
+
+	/**
+	 * 反射访问器
+	 */
+	private static class ReflectionAccessor extends PropertyAccessor {
+
+		ReflectionAccessor(Field field) {
+			super(field);
+		}
+
+		@Override
+		public Object get(Object bean) {
+			try {
+				return field.get(bean);
+			} catch (Throwable e) {
+				throw BeanMetrics.abnormal(e);
+			}
+		}
+
+		@Override
+		public void set(Object bean, Object value) {
+			try {
+				field.set(bean, value);
+			} catch (Throwable e) {
+				throw BeanMetrics.abnormal(e);
+			}
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,117 @@
+package org.lychie.beanutil;
+
+import java.util.Set;
+import java.util.List;
+import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+
+/**
+ * 类型层次。包含类的全部超类及传递闭包上的全部接口(包括接口继承的接口), 创建后不可修改,
+ * 由 {@link BeanClass#getHierarchy(Class)} 按类缓存
+ * 
+ * @author Lychie Fan
+ */
+public final class TypeHierarchy {
+
+	private final Class<?> type;
+	private final List<Class<?>> superclasses;
+	private final List<Class<?>> interfaces;
+	private final Set<Class<?>> supertypes;
+
+	TypeHierarchy(Class<?> type) {
+		List<Class<?>> classes = new ArrayList<Class<?>>();
+		for (Class<?> current = type.getSuperclass(); current != null; current = current
+				.getSuperclass()) {
+			classes.add(current);
+		}
+		/* 按广度优先收集接口, 近者在前 */
+		Set<Class<?>> faces = new LinkedHashSet<Class<?>>();
+		List<Class<?>> queue = new ArrayList<Class<?>>();
+		queue.add(type);
+		queue.addAll(classes);
+		for (int i = 0; i < queue.size(); i++) {
+			for (Class<?> face : queue.get(i).getInterfaces()) {
+				if (faces.add(face)) {
+					queue.add(face);
+				}
+			}
+		}
+		Set<Class<?>> all = new HashSet<Class<?>>(
+				(classes.size() + faces.size() + 1) * 4 / 3 + 1);
+		all.add(type);
+		all.addAll(classes);
+		all.addAll(faces);
+		/* 接口没有超类, 但可以赋值给 Object */
+		if (type.isInterface()) {
+			all.add(Object.class);
+		}
+		this.type = type;
+		this.superclasses = Collections.unmodifiableList(classes);
+		this.interfaces = Collections
+				.unmodifiableList(new ArrayList<Class<?>>(faces));
+		this.supertypes = Collections.unmodifiableSet(all);
+	}
+
+	/**
+	 * 获取类
+	 * 
+	 * @return
+	 */
+	public Class<?> getType() {
+		return type;
+	}
+
+	/**
+	 * 获取超类列表, 由近及远
+	 * 
+	 * @return 不可修改的列表
+	 */
+	public List<Class<?>> getSuperclasses() {
+		return superclasses;
+	}
+
+	/**
+	 * 获取类及超类实现的全部接口, 包括接口继承的接口, 由近及远
+	 * 
+	 * @return 不可修改的列表
+	 */
+	public List<Class<?>> getInterfaces() {
+		return interfaces;
+	}
+
+	/**
+	 * 获取类自身、全部超类与全部接口, 接口的超类型包括 Object
+	 * 
+	 * @return 不可修改的集合
+	 */
+	public Set<Class<?>> getSupertypes() {
+		return supertypes;
+	}
+
+	/**
+	 * 判断类是否派生自目标类型(或就是目标类型), 在预先计算的集合中查找。
+	 * 数组与基本类型的赋值规则不同, 仍交给 {@link Class#isAssignableFrom(Class)}
+	 * 
+	 * @param targetType
+	 *            目标类型
+	 * @return
+	 */
+	public boolean isSubtypeOf(Class<?> targetType) {
+		if (targetType == null) {
+			throw new NullPointerException(
+					"the argument targetType can not be null");
+		}
+		if (type.isArray() || type.isPrimitive()) {
+			return targetType.isAssignableFrom(type);
+		}
+		return supertypes.contains(targetType);
+	}
+
+	@Override
+	public String toString() {
+		return type.getName() + " " + superclasses + " " + interfaces;
+	}
+
+}
\ No newline at end of file
@@ -1,11 +1,8 @@
 package org.lychie.beanutil;
 
 import java.util.Map;
-import java.util.List;
-import java.util.HashMap;
 import java.lang.reflect.Field;
 import org.lychie.beanutil.exception.BeanException;
-import org.lychie.beanutil.exception.AbnormalException;
 
 /**
  * 抽象包装器
@@ -14,13 +11,32 @@ import org.lychie.beanutil.exception.AbnormalException;
  */
 public abstract class Wrapper {
 
+	/* 创建属性访问器的工厂, 无法创建时回退到反射访问 */
+	static volatile AccessorFactory accessorFactory = new MethodHandleAccessorFactory();
+	/* 是否延迟解析属性表 */
+	static volatile boolean lazyMetadata;
+
 	protected Class<?> beanClass;
+	/* 属性名称到属性的只读映射, 延迟模式下首次读取时才补齐 */
 	protected Map<String, Field> properties;
+	PropertyTable table;
 
 	public Wrapper(Class<?> beanClass) {
 		init(beanClass);
 	}
 
+	/**
+	 * 复用另一个包装器已解析好的属性表
+	 * 
+	 * @param wrapper
+	 *            已初始化的包装器
+	 */
+	protected Wrapper(Wrapper wrapper) {
+		this.beanClass = wrapper.beanClass;
+		this.table = wrapper.table;
+		this.properties = wrapper.properties;
+	}
+
 	/**
 	 * 获取属性的类型
 	 * 
@@ -29,11 +45,18 @@ public abstract class Wrapper {
 	 * @return
 	 */
 	public Class<?> getPropertyType(String propertyName) {
-		Field field = properties.get(propertyName);
-		if (field != null) {
-			return field.getType();
-		}
-		throw new BeanException(errorOf(propertyName));
+		return handleOf(propertyName).getType();
+	}
+
+	/**
+	 * 是否存在属性。不存在时不抛出异常, 适合探测可选的属性
+	 * 
+	 * @param propertyName
+	 *            属性名称
+	 * @return
+	 */
+	public boolean hasProperty(String propertyName) {
+		return table.find(propertyName) != null;
 	}
 
 	/**
@@ -49,16 +72,23 @@ public abstract class Wrapper {
 	protected void setPropertyValue(Object bean, String propertyName,
 			Object propertyValue) {
 
-		Field field = properties.get(propertyName);
-		if (field != null) {
-			try {
-				field.set(bean, propertyValue);
-				return;
-			} catch (Throwable e) {
-				throw new AbnormalException(e);
-			}
-		}
-		throw new BeanException(errorOf(propertyName));
+		handleOf(propertyName).set(bean, propertyValue);
+	}
+
+	/**
+	 * 设置属性的值, 值的类型与属性的类型不符时先经 {@link Converters} 转换
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @param propertyValue
+	 *            属性值
+	 */
+	protected void setConvertedValue(Object bean, String propertyName,
+			Object propertyValue) {
+
+		handleOf(propertyName).setConverted(bean, propertyValue);
 	}
 
 	/**
@@ -70,36 +100,296 @@ public abstract class Wrapper {
 	 *            属性名称
 	 * @return
 	 */
-	@SuppressWarnings("unchecked")
 	protected <E> E getPropertyValue(Object bean, String propertyName) {
-		Field field = properties.get(propertyName);
-		if (field != null) {
-			try {
-				return (E) field.get(bean);
-			} catch (Throwable e) {
-				throw new AbnormalException(e);
-			}
+		return handleOf(propertyName).get(bean);
+	}
+
+	/**
+	 * 获取属性的值, 属性不存在时返回 defaultValue 而不抛出异常
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @param defaultValue
+	 *            属性不存在时的返回值, 可用作区分 null 值的标记
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	protected <E> E tryGet(Object bean, String propertyName, E defaultValue) {
+		PropertyHandle handle = table.find(propertyName);
+		return handle == null ? defaultValue : (E) handle.get(bean);
+	}
+
+	/**
+	 * 设置属性的值, 属性不存在时返回 false 而不抛出异常
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @param propertyValue
+	 *            属性值
+	 * @return 属性是否存在
+	 */
+	protected boolean trySet(Object bean, String propertyName,
+			Object propertyValue) {
+
+		PropertyHandle handle = table.find(propertyName);
+		if (handle == null) {
+			return false;
+		}
+		handle.set(bean, propertyValue);
+		return true;
+	}
+
+	/**
+	 * 获取 boolean 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @return
+	 */
+	protected boolean getBoolean(Object bean, String propertyName) {
+		return handleOf(propertyName).getBoolean(bean);
+	}
+
+	/**
+	 * 设置 boolean 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @param propertyValue
+	 *            属性值
+	 */
+	protected void setBoolean(Object bean, String propertyName, boolean propertyValue) {
+		handleOf(propertyName).setBoolean(bean, propertyValue);
+	}
+
+	/**
+	 * 获取 byte 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @return
+	 */
+	protected byte getByte(Object bean, String propertyName) {
+		return handleOf(propertyName).getByte(bean);
+	}
+
+	/**
+	 * 设置 byte 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @param propertyValue
+	 *            属性值
+	 */
+	protected void setByte(Object bean, String propertyName, byte propertyValue) {
+		handleOf(propertyName).setByte(bean, propertyValue);
+	}
+
+	/**
+	 * 获取 char 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @return
+	 */
+	protected char getChar(Object bean, String propertyName) {
+		return handleOf(propertyName).getChar(bean);
+	}
+
+	/**
+	 * 设置 char 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @param propertyValue
+	 *            属性值
+	 */
+	protected void setChar(Object bean, String propertyName, char propertyValue) {
+		handleOf(propertyName).setChar(bean, propertyValue);
+	}
+
+	/**
+	 * 获取 short 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @return
+	 */
+	protected short getShort(Object bean, String propertyName) {
+		return handleOf(propertyName).getShort(bean);
+	}
+
+	/**
+	 * 设置 short 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @param propertyValue
+	 *            属性值
+	 */
+	protected void setShort(Object bean, String propertyName, short propertyValue) {
+		handleOf(propertyName).setShort(bean, propertyValue);
+	}
+
+	/**
+	 * 获取 int 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @return
+	 */
+	protected int getInt(Object bean, String propertyName) {
+		return handleOf(propertyName).getInt(bean);
+	}
+
+	/**
+	 * 设置 int 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @param propertyValue
+	 *            属性值
+	 */
+	protected void setInt(Object bean, String propertyName, int propertyValue) {
+		handleOf(propertyName).setInt(bean, propertyValue);
+	}
+
+	/**
+	 * 获取 long 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @return
+	 */
+	protected long getLong(Object bean, String propertyName) {
+		return handleOf(propertyName).getLong(bean);
+	}
+
+	/**
+	 * 设置 long 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @param propertyValue
+	 *            属性值
+	 */
+	protected void setLong(Object bean, String propertyName, long propertyValue) {
+		handleOf(propertyName).setLong(bean, propertyValue);
+	}
+
+	/**
+	 * 获取 float 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @return
+	 */
+	protected float getFloat(Object bean, String propertyName) {
+		return handleOf(propertyName).getFloat(bean);
+	}
+
+	/**
+	 * 设置 float 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @param propertyValue
+	 *            属性值
+	 */
+	protected void setFloat(Object bean, String propertyName, float propertyValue) {
+		handleOf(propertyName).setFloat(bean, propertyValue);
+	}
+
+	/**
+	 * 获取 double 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @return
+	 */
+	protected double getDouble(Object bean, String propertyName) {
+		return handleOf(propertyName).getDouble(bean);
+	}
+
+	/**
+	 * 设置 double 类型属性的值
+	 * 
+	 * @param bean
+	 *            被操纵的对象
+	 * @param propertyName
+	 *            属性名称
+	 * @param propertyValue
+	 *            属性值
+	 */
+	protected void setDouble(Object bean, String propertyName, double propertyValue) {
+		handleOf(propertyName).setDouble(bean, propertyValue);
+	}
+
+	/**
+	 * 获取属性句柄
+	 * 
+	 * @param propertyName
+	 *            属性名称
+	 * @return
+	 */
+	protected PropertyHandle handleOf(String propertyName) {
+		PropertyHandle handle = table.find(propertyName);
+		if (handle != null) {
+			return handle;
+		}
+		BeanMetricsListener listener = BeanMetrics.listener;
+		if (listener != null) {
+			listener.onPropertyNotFound(beanClass, propertyName);
 		}
 		throw new BeanException(errorOf(propertyName));
 	}
 
 	/**
-	 * 初始化
+	 * 初始化。属性表按字段的发现顺序(子类在前)排列, 初始化后不可修改;
+	 * 延迟模式下属性在首次访问时才被解析
 	 * 
 	 * @param beanClass
 	 *            被包装的类
 	 */
 	private void init(Class<?> beanClass) {
 		this.beanClass = beanClass;
-		properties = new HashMap<String, Field>();
-		List<Field> list = BeanProperty
-				.getReferableNonStaticFields(beanClass);
-		for (Field field : list) {
-			String name = field.getName();
-			if (!properties.containsKey(name)) {
-				properties.put(name, field);
-			}
-		}
+		this.table = new PropertyTable(beanClass, accessorFactory,
+				lazyMetadata);
+		this.properties = table.fieldsView();
 	}
 
 	/**
@@ -8,9 +8,23 @@ package org.lychie.beanutil.exception;
 public class BeanException extends RuntimeException {
 
 	private static final long serialVersionUID = 3046628936474014397L;
+	/* 是否记录异常的栈轨迹 */
+	private static volatile boolean stackTraceEnabled = true;
 
 	public BeanException(String message) {
-		super(message);
+		super(message, null, true, stackTraceEnabled);
+	}
+
+	/**
+	 * 设置是否记录栈轨迹。大量探测不存在的属性或方法时, 关闭后抛出异常不再遍历调用栈,
+	 * 代价接近一次普通的对象创建; 也可以改用不抛出异常的方法, 如
+	 * {@link org.lychie.beanutil.ClassWrapper#findProperty(String)}
+	 * 
+	 * @param enabled
+	 *            默认为 true
+	 */
+	public static void setStackTraceEnabled(boolean enabled) {
+		stackTraceEnabled = enabled;
 	}
 
 }
\ No newline at end of file